@@ -8,11 +8,16 @@ public interface AnnotationReactiveFilter<T extends Annotation> extends Reactive
 
     Class<T> annotation();
 
+    /**
+     * Unless this method is overridden, the server resolves the annotation once per route and calls
+     * {@link #annotatedFilter} directly : this lookup is only a fallback for chains built without route. An
+     * implementation overriding it is called on every request, as any other filter.
+     */
     @Override
     default Mono<Result> filter(Request request, FilterChain chain) {
         return request.matchingRoute()
                 .map(route -> {
-                    T annotation = route.handlerMethod().getDeclaredAnnotation(annotation());
+                    T annotation = route.annotation(annotation());
                     if (annotation != null) {
                         return annotatedFilter(request, chain, annotation);
                     } else {
@@ -1,36 +1,73 @@
 package com.liveaction.reactiff.api.server;
 
-import com.google.common.collect.ImmutableMap;
+import io.netty.handler.codec.http.DefaultHttpHeadersFactory;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
 
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.function.BiConsumer;
 
+/**
+ * Read-only view of the headers of a {@link Result}, names are case insensitive.
+ */
 public class Headers {
 
-    private static Headers EMPTY = new Headers(ImmutableMap.of());
+    private static final DefaultHttpHeadersFactory HEADERS_FACTORY = DefaultHttpHeadersFactory.headersFactory().withValidation(false);
+    private static Headers EMPTY = new Headers(EmptyHttpHeaders.INSTANCE);
 
     public static Headers empty() {
         return EMPTY;
     }
 
     public static Headers of(Map<String, String> values) {
-        return new Headers(values);
+        HttpHeaders httpHeaders = newHttpHeaders();
+        values.forEach(httpHeaders::set);
+        return new Headers(httpHeaders);
     }
 
-    private final Map<String, String> values;
+    /**
+     * The headers are not copied, they must not be modified afterwards.
+     */
+    public static Headers of(HttpHeaders httpHeaders) {
+        return new Headers(httpHeaders);
+    }
 
-    private Headers(Map<String, String> values) {
-        this.values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        this.values.putAll(values);
+    /**
+     * Mutable headers whose names and values are not validated, like the ones of a built result.
+     */
+    static HttpHeaders newHttpHeaders() {
+        return HEADERS_FACTORY.newHeaders();
+    }
+
+    private final HttpHeaders values;
+
+    private Headers(HttpHeaders values) {
+        this.values = values;
     }
 
     public String get(String name) {
         return values.get(name);
     }
 
+    public boolean contains(CharSequence name) {
+        return values.contains(name);
+    }
+
     public void forEach(BiConsumer<String, String> headerConsumer) {
-        values.forEach(headerConsumer::accept);
+        values.forEach(entry -> headerConsumer.accept(entry.getKey(), entry.getValue()));
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Adds all the headers to httpHeaders at once.
+     */
+    public void addTo(HttpHeaders httpHeaders) {
+        if (!values.isEmpty()) {
+            httpHeaders.add(values);
+        }
     }
 
 }
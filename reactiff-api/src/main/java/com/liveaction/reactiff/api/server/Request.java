@@ -17,6 +17,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface Request {
 
@@ -40,6 +41,16 @@ public interface Request {
 
     Mono<Map<String, Part>> parts();
 
+    /**
+     * The parts of a multipart request, in order, as they are received. The content of a
+     * {@link com.liveaction.reactiff.api.server.multipart.FilePart} may only be read once and has to be consumed, or
+     * cancelled, before the next part is received. The value of a form field is held in memory until it is fully
+     * received, up to a configured limit.
+     */
+    default Flux<Part> streamParts() {
+        return parts().flatMapIterable(Map::values);
+    }
+
     ImmutableMap<String, ImmutableList<String>> uriParams();
 
     String header(CharSequence name);
@@ -82,4 +93,13 @@ public interface Request {
     ImmutableList<Locale.LanguageRange> getLanguageRanges();
 
     Mono<ImmutableMap<String, ImmutableList<String>>> getFormData();
+
+    /**
+     * The fields of an application/x-www-form-urlencoded request, in order, decoded as the body is received.
+     */
+    default Flux<Map.Entry<String, String>> streamFormData() {
+        return getFormData().flatMapIterable(map -> map.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream().map(value -> Map.entry(entry.getKey(), value)))
+                .collect(Collectors.toList()));
+    }
 }
@@ -1,11 +1,11 @@
 package com.liveaction.reactiff.api.server;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.cookie.Cookie;
 import org.reactivestreams.Publisher;
@@ -13,8 +13,8 @@ import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public abstract class Result<T> {
 
@@ -111,17 +111,35 @@ public abstract class Result<T> {
         Builder<T> builder = new Builder<>();
         builder.status(status());
         builder.data(data(), type());
-        headers().forEach(builder::header);
-        cookies().forEach(builder::cookie);
+        headers().addTo(builder.httpHeaders);
+        builder.httpCookies.addAll(cookies());
         return builder;
     }
 
+    /**
+     * @return a result with the status, data and cookies of this one and its headers amended, without rebuilding it.
+     * The amendment is applied to a copy of the headers, this result is left untouched
+     */
+    public Result<T> withHeaders(Consumer<HttpHeaders> amendment) {
+        HttpHeaders httpHeaders = Headers.newHttpHeaders();
+        headers().addTo(httpHeaders);
+        amendment.accept(httpHeaders);
+        return new Built<>(status(), data(), type(), Headers.of(httpHeaders), cookies());
+    }
+
+    /**
+     * @return a result with the status, headers and cookies of this one and the given data of the same type
+     */
+    public Result<T> withData(Publisher<T> data) {
+        return new Built<>(status(), data, type(), headers(), cookies());
+    }
+
     public static final class Builder<BT> {
 
         private HttpResponseStatus status = HttpResponseStatus.valueOf(200);
         private Publisher<BT> data;
         private TypeToken<BT> type;
-        private final Map<String, String> httpHeaders = Maps.newHashMap();
+        private final HttpHeaders httpHeaders = Headers.newHttpHeaders();
         private final Set<Cookie> httpCookies = Sets.newHashSet();
 
 
@@ -160,47 +178,65 @@ public abstract class Result<T> {
         }
 
         public Builder<BT> header(CharSequence name, String value, boolean override) {
-            if (override) {
-                this.httpHeaders.put(name.toString(), value);
-            } else {
-                this.httpHeaders.putIfAbsent(name.toString(), value);
+            if (override || !this.httpHeaders.contains(name)) {
+                this.httpHeaders.set(name, value);
             }
             return this;
         }
 
         public Builder<BT> headers(CharSequence name, Collection<String> values) {
-            this.httpHeaders.put(name.toString(), String.join(",", values));
+            this.httpHeaders.set(name, String.join(",", values));
             return this;
         }
 
         public Result<BT> build() {
-            return new Result<BT>() {
-
-                @Override
-                public HttpResponseStatus status() {
-                    return status;
-                }
-
-                @Override
-                public Publisher<BT> data() {
-                    return data;
-                }
-
-                @Override
-                public TypeToken<BT> type() {
-                    return type;
-                }
-
-                @Override
-                public Headers headers() {
-                    return Headers.of(httpHeaders);
-                }
-
-                @Override
-                public Set<Cookie> cookies() {
-                    return ImmutableSet.copyOf(httpCookies);
-                }
-            };
+            // the headers and cookies are copied once, the builder may still be used
+            return new Built<>(status, data, type,
+                    httpHeaders.isEmpty() ? Headers.empty() : Headers.of(httpHeaders.copy()),
+                    ImmutableSet.copyOf(httpCookies));
+        }
+
+    }
+
+    private static final class Built<T> extends Result<T> {
+
+        private final HttpResponseStatus status;
+        private final Publisher<T> data;
+        private final TypeToken<T> type;
+        private final Headers headers;
+        private final Set<Cookie> cookies;
+
+        private Built(HttpResponseStatus status, Publisher<T> data, TypeToken<T> type, Headers headers, Set<Cookie> cookies) {
+            this.status = status;
+            this.data = data;
+            this.type = type;
+            this.headers = headers;
+            this.cookies = cookies;
+        }
+
+        @Override
+        public HttpResponseStatus status() {
+            return status;
+        }
+
+        @Override
+        public Publisher<T> data() {
+            return data;
+        }
+
+        @Override
+        public TypeToken<T> type() {
+            return type;
+        }
+
+        @Override
+        public Headers headers() {
+            return headers;
+        }
+
+        @Override
+        public Set<Cookie> cookies() {
+            return cookies;
         }
 
     }
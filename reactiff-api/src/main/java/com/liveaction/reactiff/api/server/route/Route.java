@@ -1,15 +1,21 @@
 package com.liveaction.reactiff.api.server.route;
 
+import com.google.common.collect.ImmutableMap;
 import com.liveaction.reactiff.api.server.HttpMethod;
 import com.liveaction.reactiff.api.server.utils.FormatUtils;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public abstract class Route {
 
     private static final Pattern URI_PARAM_PATTERN = Pattern.compile(".*\\{[^}]*}.*");
 
+    // declared annotations of the handler method, resolved on first lookup
+    private ImmutableMap<Class<? extends Annotation>, Annotation> annotations;
+
     public static HttpRoute http(int rank, HttpMethod method, String path, Method handlerMethod) {
         return new HttpRoute(rank, method, path, handlerMethod);
     }
@@ -26,6 +32,19 @@ public abstract class Route {
 
     public abstract Method handlerMethod();
 
+    /**
+     * Same as {@link Method#getDeclaredAnnotation(Class)} on the handler method, without the reflective lookup.
+     */
+    public <A extends Annotation> A annotation(Class<A> annotationType) {
+        ImmutableMap<Class<? extends Annotation>, Annotation> annotations = this.annotations;
+        if (annotations == null) {
+            annotations = Stream.of(handlerMethod().getDeclaredAnnotations())
+                    .collect(ImmutableMap.toImmutableMap(Annotation::annotationType, a -> a));
+            this.annotations = annotations;
+        }
+        return annotationType.cast(annotations.get(annotationType));
+    }
+
     public boolean hasUriParam() {
         return URI_PARAM_PATTERN.matcher(path()).matches();
     }
@@ -0,0 +1,131 @@
+package com.liveaction.reactiff.api.server;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.cookie.DefaultCookie;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultTest {
+
+    private static List<String> entries(Headers headers) {
+        List<String> entries = new ArrayList<>();
+        headers.forEach((name, value) -> entries.add(name + ": " + value));
+        return entries;
+    }
+
+    @Test
+    public void shouldAmendHeadersOfCopyOnly() {
+        Result<String> result = Result.<String>builder()
+                .status(HttpResponseStatus.ACCEPTED)
+                .data(Mono.just("data"), String.class)
+                .header("X-Test", "value")
+                .cookie(new DefaultCookie("cookie", "value"))
+                .build();
+
+        Result<String> amended = result.withHeaders(headers -> headers
+                .set("X-Test", "amended")
+                .add("X-Other", "other"));
+        Assertions.assertThat(entries(amended.headers())).containsExactly("X-Test: amended", "X-Other: other");
+        Assertions.assertThat(amended.status()).isEqualTo(HttpResponseStatus.ACCEPTED);
+        Assertions.assertThat(amended.data()).isSameAs(result.data());
+        Assertions.assertThat(amended.type()).isEqualTo(result.type());
+        Assertions.assertThat(amended.cookies()).isEqualTo(result.cookies());
+
+        // the amended result may be a shared one, like a cached preflight result
+        Assertions.assertThat(entries(result.headers())).containsExactly("X-Test: value");
+        Assertions.assertThat(entries(result.withHeaders(headers -> headers.add("X-Test", "other")).headers()))
+                .containsExactly("X-Test: value", "X-Test: other");
+        Assertions.assertThat(entries(result.headers())).containsExactly("X-Test: value");
+    }
+
+    @Test
+    public void shouldAmendHeadersOfResultWithoutHeaders() {
+        Result<String> result = Result.ok(Mono.just("data"), String.class);
+
+        Result<String> amended = result.withHeaders(headers -> headers.set("X-Test", "value"));
+        Assertions.assertThat(amended.headers().get("x-test")).isEqualTo("value");
+        Assertions.assertThat(result.headers().isEmpty()).isTrue();
+        Assertions.assertThat(Headers.empty().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldReplaceDataOnly() {
+        DefaultCookie cookie = new DefaultCookie("cookie", "value");
+        Result<String> result = Result.<String>builder()
+                .status(HttpResponseStatus.CREATED)
+                .data(Mono.just("data"), String.class)
+                .header("X-Test", "value")
+                .cookie(cookie)
+                .build();
+
+        Mono<String> data = Mono.just("other");
+        Result<String> replaced = result.withData(data);
+        Assertions.assertThat(replaced.data()).isSameAs(data);
+        Assertions.assertThat(replaced.type()).isEqualTo(result.type());
+        Assertions.assertThat(replaced.status()).isEqualTo(HttpResponseStatus.CREATED);
+        Assertions.assertThat(replaced.headers()).isSameAs(result.headers());
+        Assertions.assertThat(replaced.cookies()).containsExactly(cookie);
+        Assertions.assertThat(result.data()).isNotSameAs(data);
+    }
+
+    @Test
+    public void shouldNotShareBuilderStateWithBuiltResults() {
+        Result.Builder<String> builder = Result.<String>builder()
+                .header("X-Test", "value")
+                .cookie(new DefaultCookie("first", "value"));
+        Result<String> first = builder.build();
+
+        builder.header("X-Test", "other", true)
+                .header("X-Other", "other")
+                .cookie(new DefaultCookie("second", "value"));
+        Result<String> second = builder.build();
+
+        Assertions.assertThat(entries(first.headers())).containsExactly("X-Test: value");
+        Assertions.assertThat(first.cookies()).extracting(cookie -> cookie.name()).containsExactly("first");
+        Assertions.assertThat(entries(second.headers())).containsExactly("X-Test: other", "X-Other: other");
+        Assertions.assertThat(second.cookies()).extracting(cookie -> cookie.name()).containsExactlyInAnyOrder("first", "second");
+    }
+
+    @Test
+    public void shouldMatchHeaderNamesIgnoringCase() {
+        Result<Object> result = Result.builder()
+                .header("Content-Type", "text/plain")
+                .header("content-type", "application/json", false)
+                .header("CONTENT-TYPE", "text/html")
+                .build();
+        Assertions.assertThat(entries(result.headers())).containsExactly("Content-Type: text/plain");
+        Assertions.assertThat(result.headers().get("content-TYPE")).isEqualTo("text/plain");
+        Assertions.assertThat(result.headers().contains("CONTENT-type")).isTrue();
+
+        Result<Object> overridden = Result.builder()
+                .header("Content-Type", "text/plain")
+                .header("content-type", "application/json", true)
+                .build();
+        Assertions.assertThat(entries(overridden.headers())).containsExactly("content-type: application/json");
+    }
+
+    @Test
+    public void shouldAddEveryHeaderEntry() {
+        HttpHeaders values = new DefaultHttpHeaders()
+                .add("X-Test", "value")
+                .add("Vary", ImmutableList.of("Accept-Encoding", "origin"));
+        HttpHeaders response = new DefaultHttpHeaders()
+                .add("Vary", "Accept");
+
+        Headers.of(values).addTo(response);
+        Assertions.assertThat(response.getAll("Vary")).containsExactly("Accept", "Accept-Encoding", "origin");
+        Assertions.assertThat(response.getAll("X-Test")).containsExactly("value");
+        Assertions.assertThat(response.size()).isEqualTo(4);
+
+        Headers.empty().addTo(response);
+        Assertions.assertThat(response.size()).isEqualTo(4);
+    }
+
+}
@@ -4,6 +4,8 @@ import com.liveaction.reactiff.api.server.HttpMethod;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
+import java.lang.reflect.Method;
+
 public class RouteTest {
 
     @Test
@@ -13,4 +15,12 @@ public class RouteTest {
         Assertions.assertThat(route1.hasUriParam()).isFalse();
         Assertions.assertThat(route2.hasUriParam()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldLookupHandlerMethodAnnotations() throws NoSuchMethodException {
+        Method method = RouteTest.class.getMethod("shouldTestUriParam");
+        HttpRoute route = new HttpRoute(0, HttpMethod.GET, "/test", method);
+        Assertions.assertThat(route.annotation(Test.class)).isEqualTo(method.getDeclaredAnnotation(Test.class));
+        Assertions.assertThat(route.annotation(Deprecated.class)).isNull();
+    }
+}
@@ -0,0 +1,67 @@
+package com.liveaction.reactiff.benchmarks;
+
+import com.liveaction.reactiff.server.internal.support.HandlerInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of calling a handler method through {@link Method#invoke} compared with {@link HandlerInvoker}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerInvokerBenchmark {
+
+    public static class Handler {
+
+        public Mono<String> get(String name, int count) {
+            return Mono.just(name);
+        }
+
+    }
+
+    private final Handler handler = new Handler();
+    private final Object[] args = {"name", 42};
+
+    private Method method;
+    private HandlerInvoker reflective;
+    private HandlerInvoker methodHandle;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        method = Handler.class.getMethod("get", String.class, int.class);
+        reflective = HandlerInvoker.reflective(handler, method);
+        methodHandle = HandlerInvoker.create(handler, method);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        return method.invoke(handler, args);
+    }
+
+    @Benchmark
+    public Object reflectiveInvoker() throws Throwable {
+        return reflective.invoke(args);
+    }
+
+    @Benchmark
+    public Object methodHandleInvoker() throws Throwable {
+        return methodHandle.invoke(args);
+    }
+
+}
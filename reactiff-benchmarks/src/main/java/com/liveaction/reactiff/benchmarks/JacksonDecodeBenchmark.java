@@ -0,0 +1,82 @@
+package com.liveaction.reactiff.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.codec.jackson.JsonCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming decoding of a large JSON array received in fixed size chunks, to be run with the GC profiler :
+ * {@code java -jar benchmarks.jar JacksonDecodeBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JacksonDecodeBenchmark {
+
+    public static final class Item {
+
+        public int id;
+        public String name;
+        public List<String> tags;
+
+    }
+
+    private static final TypeToken<Item> ITEM_TYPE = TypeToken.of(Item.class);
+
+    @Param({"1000000"})
+    public int items;
+
+    @Param({"8192"})
+    public int chunkSize;
+
+    private final JsonCodec jsonCodec = new JsonCodec(new ObjectMapper());
+    private List<ByteBuf> chunks;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item number ").append(i)
+                    .append("\",\"tags\":[\"tag-a\",\"tag-b\",\"tag-").append(i).append("\"]}");
+        }
+        byte[] bytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            chunks.add(Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(bytes, offset, Math.min(chunkSize, bytes.length - offset))));
+        }
+    }
+
+    @Benchmark
+    public long decodeFlux() {
+        return jsonCodec.decodeFlux(JsonCodec.APPLICATION_JSON, Flux.fromIterable(chunks).map(ByteBuf::duplicate), ITEM_TYPE)
+                .count()
+                .block();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.liveaction.reactiff.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.codec.jackson.JsonCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Encoding of JSON responses, to be run with the GC profiler to compare allocation rates :
+ * {@code java -jar benchmarks.jar JacksonEncodeBenchmark -prof gc}.
+ * <p>
+ * {@code heapCopy*} reproduce the former encoding, through a byte array wrapped in an unpooled buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonEncodeBenchmark {
+
+    public static final class Item {
+
+        public final int id;
+        public final String name;
+        public final List<String> tags;
+
+        Item(int id) {
+            this.id = id;
+            this.name = "item number " + id;
+            this.tags = List.of("tag-a", "tag-b", "tag-" + id);
+        }
+
+    }
+
+    private static final TypeToken<Item> ITEM_TYPE = TypeToken.of(Item.class);
+    private static final TypeToken<List<Item>> LIST_TYPE = new TypeToken<>() {
+    };
+
+    @Param({"100", "10000"})
+    public int items;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter objectWriter = objectMapper.writer();
+    private final JsonCodec jsonCodec = new JsonCodec(objectMapper);
+    private List<Item> values;
+
+    @Setup
+    public void setUp() {
+        values = IntStream.range(0, items)
+                .mapToObj(Item::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long encodeFlux() {
+        return drain(jsonCodec.encode(JsonCodec.APPLICATION_JSON, Flux.fromIterable(values), ITEM_TYPE));
+    }
+
+    @Benchmark
+    public long encodeMono() {
+        return drain(jsonCodec.encode(JsonCodec.APPLICATION_JSON, Mono.just(values), LIST_TYPE));
+    }
+
+    @Benchmark
+    public long heapCopyFlux() {
+        return drain(Flux.fromIterable(values)
+                .map(value -> {
+                    try {
+                        return Unpooled.wrappedBuffer(objectWriter.writeValueAsBytes(value));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+    }
+
+    @Benchmark
+    public long heapCopyMono() throws Exception {
+        return drain(Mono.just(Unpooled.wrappedBuffer(objectWriter.writeValueAsBytes(values))));
+    }
+
+    private static long drain(Publisher<ByteBuf> buffers) {
+        return Flux.from(buffers)
+                .map(buffer -> {
+                    int readable = buffer.readableBytes();
+                    buffer.release();
+                    return (long) readable;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.liveaction.reactiff.benchmarks;
+
+import com.liveaction.reactiff.api.codec.CodecManager;
+import com.liveaction.reactiff.codec.CodecManagerImpl;
+import com.liveaction.reactiff.server.internal.RequestImpl;
+import io.netty.handler.codec.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.netty.http.server.HttpServerRequest;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a {@link RequestImpl}, alone or followed by the reads a handler usually does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestImplBenchmark {
+
+    @Param({"0", "3", "50"})
+    public int queryParams;
+
+    private final CodecManager codecManager = new CodecManagerImpl();
+    private HttpServerRequest httpServerRequest;
+
+    @Setup
+    public void setUp() {
+        StringBuilder uri = new StringBuilder("/api/resources/42");
+        for (int i = 0; i < queryParams; i++) {
+            uri.append(i == 0 ? '?' : '&').append("param").append(i).append("=value%20").append(i);
+        }
+        httpServerRequest = Stubs.request(HttpMethod.GET, uri.toString());
+    }
+
+    @Benchmark
+    public RequestImpl construct() {
+        return new RequestImpl(httpServerRequest, codecManager, Optional.empty());
+    }
+
+    @Benchmark
+    public void constructAndReadUriParam(Blackhole blackhole) {
+        RequestImpl request = new RequestImpl(httpServerRequest, codecManager, Optional.empty());
+        blackhole.consume(request.uriParam("param0"));
+        blackhole.consume(request.uri());
+    }
+
+    @Benchmark
+    public void constructAndReadAllUriParams(Blackhole blackhole) {
+        RequestImpl request = new RequestImpl(httpServerRequest, codecManager, Optional.empty());
+        blackhole.consume(request.uriParams());
+        blackhole.consume(request.query());
+    }
+
+}
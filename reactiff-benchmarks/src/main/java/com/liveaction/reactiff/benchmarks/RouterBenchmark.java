@@ -0,0 +1,104 @@
+package com.liveaction.reactiff.benchmarks;
+
+import com.liveaction.reactiff.server.internal.routing.RoutingTable;
+import io.netty.handler.codec.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Dispatch latency of the reactor-netty {@link HttpServerRoutes} the Router used to delegate to, compared with
+ * {@link RoutingTable}. Half of the routes are static, half have a path parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+    private static final BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> HANDLER = (req, res) -> Mono.empty();
+
+    @Param({"10", "100", "1000"})
+    public int routes;
+
+    private HttpServerRoutes httpServerRoutes;
+    private RoutingTable routingTable;
+
+    private HttpServerRequest firstRoute;
+    private HttpServerRequest lastRoute;
+    private HttpServerRequest notFound;
+
+    @Setup
+    public void setUp() {
+        httpServerRoutes = HttpServerRoutes.newRoutes();
+        routingTable = new RoutingTable();
+        for (int i = 0; i < routes; i++) {
+            String path = i % 2 == 0 ? "/api/resource" + i + "/items" : "/api/resource" + i + "/{id}";
+            httpServerRoutes.get(path, HANDLER);
+            routingTable.add(HttpMethod.GET, path, HANDLER);
+        }
+        httpServerRoutes.route(req -> true, HANDLER);
+
+        firstRoute = Stubs.request(HttpMethod.GET, "/api/resource0/items");
+        lastRoute = Stubs.request(HttpMethod.GET, "/api/resource" + (routes - 1) + "/42?expand=true");
+        notFound = Stubs.request(HttpMethod.GET, "/api/unknown/route");
+    }
+
+    @Benchmark
+    public Publisher<Void> httpServerRoutesFirstRoute() {
+        return httpServerRoutes.apply(firstRoute, null);
+    }
+
+    @Benchmark
+    public Publisher<Void> httpServerRoutesLastRoute() {
+        return httpServerRoutes.apply(lastRoute, null);
+    }
+
+    @Benchmark
+    public Publisher<Void> httpServerRoutesNotFound() {
+        return httpServerRoutes.apply(notFound, null);
+    }
+
+    @Benchmark
+    public Publisher<Void> routingTableFirstRoute() {
+        return dispatch(firstRoute);
+    }
+
+    @Benchmark
+    public Publisher<Void> routingTableLastRoute() {
+        return dispatch(lastRoute);
+    }
+
+    @Benchmark
+    public Publisher<Void> routingTableNotFound() {
+        return dispatch(notFound);
+    }
+
+    private Publisher<Void> dispatch(HttpServerRequest request) {
+        RoutingTable.Match match = routingTable.match(request.method(), request.uri());
+        if (match == null) {
+            return HANDLER.apply(request, null);
+        }
+        request.paramsResolver(uri -> match.params());
+        return match.handler().apply(request, null);
+    }
+
+}
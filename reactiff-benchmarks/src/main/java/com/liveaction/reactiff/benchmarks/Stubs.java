@@ -0,0 +1,70 @@
+package com.liveaction.reactiff.benchmarks;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import reactor.netty.http.server.HttpServerRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static HttpServerRequest request(HttpMethod method, String uri) {
+        return request(method, uri, new DefaultHttpHeaders());
+    }
+
+    /**
+     * A minimal {@link HttpServerRequest} answering the calls made while routing and reading a request, without any
+     * network connection behind it.
+     */
+    @SuppressWarnings("unchecked")
+    static HttpServerRequest request(HttpMethod method, String uri, HttpHeaders headers) {
+        Function<? super String, Map<String, String>>[] paramsResolver = new Function[]{u -> Collections.emptyMap()};
+        InvocationHandler handler = (proxy, m, args) -> {
+            switch (m.getName()) {
+                case "method":
+                    return method;
+                case "uri":
+                    return uri;
+                case "fullPath":
+                    int query = uri.indexOf('?');
+                    return query < 0 ? uri : uri.substring(0, query);
+                case "version":
+                    return HttpVersion.HTTP_1_1;
+                case "requestHeaders":
+                    return headers;
+                case "paramsResolver":
+                    paramsResolver[0] = (Function<? super String, Map<String, String>>) args[0];
+                    return proxy;
+                case "params":
+                    return paramsResolver[0].apply(uri);
+                case "param":
+                    return paramsResolver[0].apply(uri).get(args[0].toString());
+                case "isWebsocket":
+                case "isKeepAlive":
+                    return false;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return method + " " + uri;
+                default:
+                    if (m.isDefault()) {
+                        return InvocationHandler.invokeDefault(proxy, m, args);
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+            }
+        };
+        return (HttpServerRequest) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class[]{HttpServerRequest.class}, handler);
+    }
+
+}
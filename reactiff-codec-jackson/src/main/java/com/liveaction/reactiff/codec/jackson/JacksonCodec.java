@@ -5,16 +5,23 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.async.ByteArrayFeeder;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
-import com.google.common.collect.ImmutableList;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.codec.BufferBatching;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,9 +32,10 @@ import reactor.util.function.Tuples;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
@@ -38,10 +46,13 @@ public class JacksonCodec {
     private static final Logger LOGGER = LoggerFactory.getLogger(JacksonCodec.class);
 
     private static final TypeToken<Mono> MONO_TYPE_TOKEN = TypeToken.of(Mono.class);
+    private static final int CACHE_SIZE = 512;
 
     private JsonFactory jsonFactory;
-    private ObjectWriter objectWriter;
+    private volatile Mappers mappers;
     private DeserializerWrapper deserializerWrapper;
+    private ByteBufAllocator byteBufAllocator = ByteBufAllocator.DEFAULT;
+    private BufferBatching bufferBatching = BufferBatching.NONE;
 
 
     public JacksonCodec(ObjectMapper objectMapper, JsonFactory jsonFactory) {
@@ -54,17 +65,38 @@ public class JacksonCodec {
         return this;
     }
 
+    /**
+     * Allocator of the buffers values are serialized into, the pooled {@link ByteBufAllocator#DEFAULT} by default.
+     */
+    public JacksonCodec withByteBufAllocator(ByteBufAllocator byteBufAllocator) {
+        this.byteBufAllocator = byteBufAllocator;
+        return this;
+    }
+
+    /**
+     * Batching of the buffers encoded from a {@link Flux}, none by default : one buffer is sent per element.
+     */
+    public JacksonCodec withBufferBatching(BufferBatching bufferBatching) {
+        this.bufferBatching = bufferBatching;
+        return this;
+    }
+
     public void reloadMapper(ObjectMapper objectMapper) {
-        this.objectWriter = objectMapper.writer().with(jsonFactory);
+        this.mappers = new Mappers(objectMapper, objectMapper.writer().with(jsonFactory));
         jsonFactory.setCodec(objectMapper);
     }
 
     public <T> Mono<T> decodeMono(Publisher<ByteBuf> byteBufFlux, TypeToken<T> typeToken) {
+        ObjectReader objectReader = mappers.reader(typeToken);
         return ByteBufFlux.fromInbound(byteBufFlux)
                 .aggregate()
-                .asByteArray()// https://github.com/reactor/reactor-netty/issues/746
-                .handle((bytes, sink) -> {
-                    T value = deserialize(() -> jsonFactory.createParser(bytes).readValueAs(toTypeReference(typeToken)));
+                // parsed while the aggregated buffer is still retained, without copying it into an array
+                .handle((byteBuf, sink) -> {
+                    T value = deserialize(() -> {
+                        try (JsonParser parser = jsonFactory.createParser((InputStream) new ByteBufInputStream(byteBuf))) {
+                            return objectReader.readValue(parser);
+                        }
+                    });
                     if (value == null) {
                         sink.complete();
                     } else {
@@ -75,10 +107,12 @@ public class JacksonCodec {
 
     public <T> Flux<T> decodeFlux(Publisher<ByteBuf> byteBufFlux, TypeToken<T> typeToken, boolean readTopLevelArray) {
         try {
-            JsonAsyncParser<T> jsonAsyncParser = new JsonAsyncParser<>(jsonFactory, readTopLevelArray, typeToken, this::deserialize);
+            JsonAsyncParser<T> jsonAsyncParser = new JsonAsyncParser<>(jsonFactory, readTopLevelArray, mappers.reader(typeToken), this::deserialize);
             return ByteBufFlux.fromInbound(byteBufFlux)
-                    .asByteArray()
-                    .flatMapIterable(jsonAsyncParser::parse)
+                    // parsed as soon as received : the inbound buffers are released once onNext returns, whereas
+                    // flatMapIterable only maps a buffer once the values of the previous one have been requested
+                    .map(jsonAsyncParser::parse)
+                    .flatMapIterable(Function.identity())
                     .doOnTerminate(jsonAsyncParser::close);
         } catch (IOException e) {
             return Flux.error(e);
@@ -86,54 +120,73 @@ public class JacksonCodec {
     }
 
     public <T> Publisher<ByteBuf> encode(Publisher<T> data, boolean tokenizeArrayElements) {
+        return encode(data, null, tokenizeArrayElements);
+    }
+
+    /**
+     * @param typeToken type of the values, used to serialize containers with their generic types, may be null
+     */
+    public <T> Publisher<ByteBuf> encode(Publisher<T> data, TypeToken<T> typeToken, boolean tokenizeArrayElements) {
+        ObjectWriter objectWriter = mappers.writer(typeToken);
         if (MONO_TYPE_TOKEN.isSupertypeOf(data.getClass())) {
             return Mono.from(data)
-                    .flatMap(obj -> {
+                    .handle((obj, sink) -> {
+                        ByteBufTarget output = new ByteBufTarget(byteBufAllocator);
                         try {
-
-                            return Mono.just(Unpooled.wrappedBuffer(objectWriter.writeValueAsBytes(obj)));
-                        } catch (JsonProcessingException e) {
+                            objectWriter.writeValue(output, obj);
+                            ByteBuf written = output.take();
+                            if (written != null) {
+                                sink.next(written);
+                            }
+                        } catch (IOException e) {
                             LOGGER.error(String.format("Error in serialization: %s could not be serialized because %s", obj, e.getMessage()));
                             LOGGER.debug(String.format("Error in serialization: %s could not be serialized", obj), e);
-                            return Mono.error(e);
+                            sink.error(e);
+                        } finally {
+                            output.release();
                         }
                     });
         } else {
-            return encodeValue(Flux.from(data), tokenizeArrayElements);
+            return bufferBatching.apply(encodeValue(objectWriter, Flux.from(data), tokenizeArrayElements));
         }
     }
 
-    private <T> Flux<ByteBuf> encodeValue(Flux<T> values, boolean wrapInArray) {
+    private <T> Flux<ByteBuf> encodeValue(ObjectWriter objectWriter, Flux<T> values, boolean wrapInArray) {
         return Flux.using(() -> {
-                    ByteArrayBuilder output = new ByteArrayBuilder();
+                    ByteBufTarget output = new ByteBufTarget(byteBufAllocator);
                     SequenceWriter sequenceWriter = objectWriter.writeValues(output);
                     sequenceWriter.init(wrapInArray);
                     return Tuples.of(output, sequenceWriter);
                 }, tuple -> {
-                    ByteArrayBuilder output = tuple.getT1();
+                    ByteBufTarget output = tuple.getT1();
                     SequenceWriter sequenceWriter = tuple.getT2();
-                    return values.concatMap(val -> {
+                    // handled synchronously : an inner Mono.just would discard, hence release, its already sent buffer
+                    // when cancelled by an error of values
+                    return values.<ByteBuf>handle((val, sink) -> {
                         try {
-                            output.reset();
                             sequenceWriter.write(val);
-                            return Mono.just(Unpooled.wrappedBuffer(output.toByteArray()));
+                            sequenceWriter.flush();
+                            ByteBuf written = output.take();
+                            if (written != null) {
+                                sink.next(written);
+                            }
                         } catch (IOException e) {
-                            return Mono.error(e);
+                            sink.error(e);
                         }
                     }).concatWith(Mono.fromCallable(() -> {
-                        output.reset();
                         // used to close() the SequenceWriter in implicit finally clause
                         try (SequenceWriter c = tuple.getT2()) {
                         }
-                        byte[] array = output.toByteArray();
-                        return array.length == 0 ? null : Unpooled.wrappedBuffer(array);
+                        return output.take();
                     }));
 
                 },
                 tuple -> {
-                    try (ByteArrayBuilder a = tuple.getT1(); SequenceWriter c = tuple.getT2()) {
+                    try (SequenceWriter c = tuple.getT2()) {
                     } catch (IOException e) {
                         LOGGER.error("Error when closing resources", e);
+                    } finally {
+                        tuple.getT1().release();
                     }
                 });
     }
@@ -151,22 +204,146 @@ public class JacksonCodec {
         return res;
     }
 
-    private static <T> TypeReference<T> toTypeReference(TypeToken<T> typeToken) {
-        return new TypeReference<T>() {
-            @Override
-            public Type getType() {
-                return typeToken.getType();
+    /**
+     * Readers and writers resolved per type for a given mapper, so that Jackson resolves the root type and looks up its
+     * (de)serializer once.
+     */
+    private static final class Mappers {
+
+        private final ObjectMapper objectMapper;
+        private final ObjectWriter objectWriter;
+        private final Cache<TypeToken<?>, ObjectReader> readers = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+        private final Cache<TypeToken<?>, ObjectWriter> writers = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+        private Mappers(ObjectMapper objectMapper, ObjectWriter objectWriter) {
+            this.objectMapper = objectMapper;
+            this.objectWriter = objectWriter;
+        }
+
+        private ObjectReader reader(TypeToken<?> typeToken) {
+            ObjectReader reader = readers.getIfPresent(typeToken);
+            if (reader == null) {
+                reader = objectMapper.readerFor(objectMapper.constructType(typeToken.getType()));
+                readers.put(typeToken, reader);
+            }
+            return reader;
+        }
+
+        /**
+         * Only containers are written for their declared type, which carries the generic type of their elements : other
+         * values are written for their runtime type, as a subclass may declare more properties than its declared type.
+         */
+        private ObjectWriter writer(TypeToken<?> typeToken) {
+            if (typeToken == null) {
+                return objectWriter;
+            }
+            ObjectWriter writer = writers.getIfPresent(typeToken);
+            if (writer == null) {
+                JavaType javaType = objectMapper.constructType(typeToken.getType());
+                writer = javaType.isContainerType() ? objectWriter.forType(javaType) : objectWriter;
+                writers.put(typeToken, writer);
+            }
+            return writer;
+        }
+
+    }
+
+    /**
+     * Generator target writing into buffers that are handed over each time a value has been serialized, so that values
+     * are written once, straight into the buffers sent on the network.
+     * <p>
+     * A value is written into chunks of at most {@link #CHUNK_SIZE} bytes, composed when it spans several of them : a
+     * large value is neither copied each time its buffer would grow, nor allocated outside of the pool.
+     */
+    private static final class ByteBufTarget extends OutputStream {
+
+        // the page size of the pooled allocator
+        private static final int CHUNK_SIZE = 8192;
+        // the default initial capacity of the allocators, most values are small
+        private static final int INITIAL_CHUNK_SIZE = 256;
+
+        private final ByteBufAllocator byteBufAllocator;
+        // the chunk being written, only the first chunk of a value grows up to CHUNK_SIZE
+        private ByteBuf chunk;
+        // the full chunks of the value being written, if any
+        private CompositeByteBuf chunks;
+
+        private ByteBufTarget(ByteBufAllocator byteBufAllocator) {
+            this.byteBufAllocator = byteBufAllocator;
+        }
+
+        private ByteBuf chunk() {
+            if (chunk == null) {
+                chunk = byteBufAllocator.buffer(INITIAL_CHUNK_SIZE, CHUNK_SIZE);
+            } else if (chunk.maxWritableBytes() == 0) {
+                if (chunks == null) {
+                    chunks = byteBufAllocator.compositeBuffer(Integer.MAX_VALUE);
+                }
+                chunks.addComponent(true, chunk);
+                chunk = byteBufAllocator.buffer(CHUNK_SIZE, CHUNK_SIZE);
+            }
+            return chunk;
+        }
+
+        @Override
+        public void write(int b) {
+            chunk().writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                ByteBuf chunk = chunk();
+                int length = Math.min(len, chunk.maxWritableBytes());
+                chunk.writeBytes(b, off, length);
+                off += length;
+                len -= length;
+            }
+        }
+
+        /**
+         * @return the bytes written since the last call, or null if none
+         */
+        private ByteBuf take() {
+            ByteBuf written = chunk;
+            chunk = null;
+            if (chunks != null) {
+                if (written.isReadable()) {
+                    chunks.addComponent(true, written);
+                } else {
+                    written.release();
+                }
+                written = chunks;
+                chunks = null;
+            }
+            if (written != null && !written.isReadable()) {
+                written.release();
+                return null;
+            }
+            return written;
+        }
+
+        /**
+         * Releases the bytes not handed over. Not done by close() which is called by the generator when it is closed.
+         */
+        private void release() {
+            if (chunk != null) {
+                chunk.release();
+                chunk = null;
+            }
+            if (chunks != null) {
+                chunks.release();
+                chunks = null;
             }
-        };
+        }
     }
 
     public static class JsonAsyncParser<T> implements Closeable {
 
-        private final JsonFactory jsonFactory;
         private final boolean readTopLevelArray;
         private final JsonParser parser;
         private final Function<Callable<T>, T> deserializerFunction;
-        private final TypeToken<T> typeToken;
+        private final ObjectReader objectReader;
         private TokenBuffer tokenBuffer;
 
         boolean rootLevelArrayStarted = false;
@@ -175,44 +352,80 @@ public class JacksonCodec {
         private int objectDepth = 0;
         private int arrayDepth = 0;
 
-        // TODO: change to ByteBufferFeeder when supported by Jackson
-        // See https://github.com/FasterXML/jackson-core/issues/478
-        private final ByteArrayFeeder inputFeeder;
+        // null when the format only supports byte array input
+        private final ByteBufferFeeder byteBufferFeeder;
+        private final ByteArrayFeeder byteArrayFeeder;
 
         public JsonAsyncParser(JsonFactory jsonFactory, boolean readTopLevelArray, TypeToken<T> typeToken, Function<Callable<T>, T> deserializerFunction) throws IOException {
-            this.jsonFactory = jsonFactory;
+            this(jsonFactory, readTopLevelArray, ((ObjectMapper) jsonFactory.getCodec()).readerFor(TypeFactory.defaultInstance().constructType(typeToken.getType())), deserializerFunction);
+        }
+
+        /**
+         * @param objectReader reader of the elements, resolved once for the whole stream
+         */
+        public JsonAsyncParser(JsonFactory jsonFactory, boolean readTopLevelArray, ObjectReader objectReader, Function<Callable<T>, T> deserializerFunction) throws IOException {
             this.readTopLevelArray = readTopLevelArray;
-            this.typeToken = typeToken;
-            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+            this.objectReader = objectReader;
+            this.parser = createParser(jsonFactory);
             this.deserializerFunction = deserializerFunction;
-            this.inputFeeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+            if (parser.getNonBlockingInputFeeder() instanceof ByteBufferFeeder) {
+                this.byteBufferFeeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+                this.byteArrayFeeder = null;
+            } else {
+                this.byteBufferFeeder = null;
+                this.byteArrayFeeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            }
 
             this.tokenBuffer = new TokenBuffer(this.parser);
         }
 
+        private static JsonParser createParser(JsonFactory jsonFactory) throws IOException {
+            try {
+                return jsonFactory.createNonBlockingByteBufferParser();
+            } catch (UnsupportedOperationException e) {
+                // e.g. Smile
+                return jsonFactory.createNonBlockingByteArrayParser();
+            }
+        }
 
-        Collection<T> parse(byte[] bytes) {
+        /**
+         * Parses the values completed by the given buffer. The buffer is entirely consumed when this method returns, the
+         * parser keeps no reference to it.
+         */
+        List<T> parse(ByteBuf byteBuf) {
             try {
-                List<TokenBuffer> tokenBuffers = parseTokens(parser, bytes);
-                return tokenBuffers.stream()
-                        .map(this::parseTokenBuffer)
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(ImmutableList.toImmutableList());
+                List<T> values = new ArrayList<>();
+                if (byteBufferFeeder != null) {
+                    for (ByteBuffer byteBuffer : byteBuf.nioBuffers()) {
+                        byteBufferFeeder.feedInput(byteBuffer);
+                        parseTokens(values);
+                    }
+                } else if (byteBuf.hasArray()) {
+                    int offset = byteBuf.arrayOffset() + byteBuf.readerIndex();
+                    byteArrayFeeder.feedInput(byteBuf.array(), offset, offset + byteBuf.readableBytes());
+                    parseTokens(values);
+                } else {
+                    byte[] bytes = ByteBufUtil.getBytes(byteBuf);
+                    byteArrayFeeder.feedInput(bytes, 0, bytes.length);
+                    parseTokens(values);
+                }
+                return values;
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
 
-        private Optional<T> parseTokenBuffer(TokenBuffer tokenBuffer) {
-            Optional<T> res;
+        /**
+         * Binds the element whose tokens have been buffered. The tokens are buffered as the async parser cannot be bound
+         * while an element may still be incomplete.
+         */
+        private void readValue(TokenBuffer tokenBuffer, List<T> values) {
             if (tokenBuffer.firstToken() != null) {
-                JsonParser jsonParser = tokenBuffer.asParser(jsonFactory.getCodec());
-                res = Optional.of(deserializerFunction.apply(() -> jsonParser.readValueAs(toTypeReference(typeToken))));
-            } else {
-                res = Optional.empty();
+                T value = deserializerFunction.apply(() -> objectReader.readValue(tokenBuffer.asParser()));
+                if (value != null) {
+                    values.add(value);
+                }
             }
-            return res;
         }
 
         private void updateDepth(JsonToken token) {
@@ -232,9 +445,7 @@ public class JacksonCodec {
             }
         }
 
-        private List<TokenBuffer> parseTokens(JsonParser parser, byte[] array) throws IOException {
-            List<TokenBuffer> result = new ArrayList<>();
-            inputFeeder.feedInput(array, 0, array.length);
+        private void parseTokens(List<T> values) throws IOException {
             while (true) {
                 JsonToken token = this.parser.nextToken();
 
@@ -264,17 +475,16 @@ public class JacksonCodec {
                 }
                 tokenBuffer.copyCurrentEvent(parser);
                 if (this.objectDepth == 0 && (this.arrayDepth == 0 || (this.arrayDepth == 1 && readTopLevelArray))) {
-                    result.add(tokenBuffer);
+                    readValue(tokenBuffer, values);
                     tokenBuffer = new TokenBuffer(parser);
                 }
             }
-            return result;
         }
 
         @Override
         public void close() {
             try {
-                inputFeeder.endOfInput();
+                parser.getNonBlockingInputFeeder().endOfInput();
                 parser.close();
             } catch (IOException e) {
                 LOGGER.error("Error while closing parser", e);
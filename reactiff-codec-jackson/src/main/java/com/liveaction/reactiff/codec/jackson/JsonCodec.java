@@ -6,6 +6,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.Codec;
 import com.liveaction.reactiff.api.server.Result;
+import com.liveaction.reactiff.codec.BufferBatching;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import org.reactivestreams.Publisher;
@@ -35,6 +36,12 @@ public final class JsonCodec extends JacksonCodec implements Codec {
         super(objectCodec, new JsonFactory());
     }
 
+    @Override
+    public JsonCodec withBufferBatching(BufferBatching bufferBatching) {
+        super.withBufferBatching(bufferBatching);
+        return this;
+    }
+
     @Override
     public int rank() {
         return 5;
@@ -61,15 +68,15 @@ public final class JsonCodec extends JacksonCodec implements Codec {
     public <T> Publisher<ByteBuf> encode(String contentType, Publisher<T> data, TypeToken<T> typeToken) {
         return checkContentType(contentType)
                 .map(throwable -> (Publisher<ByteBuf>) Mono.<ByteBuf>error(throwable))
-                .orElseGet(() -> super.encode(data, isApplicationJson(contentType)));
+                .orElseGet(() -> super.encode(data, typeToken, isApplicationJson(contentType)));
     }
 
     @Override
     public <T> Mono<Result<T>> enrich(Result<T> result, String contentType) {
-        Result.Builder<T> resultBuilder = result.copy()
-                .header(HttpHeaderNames.CONTENT_TYPE, contentTypeWithCharset(contentType), false);
-
-        return Mono.just(resultBuilder.build());
+        if (result.headers().contains(HttpHeaderNames.CONTENT_TYPE)) {
+            return Mono.just(result);
+        }
+        return Mono.just(result.withHeaders(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, contentTypeWithCharset(contentType))));
     }
 
     private boolean isApplicationJson(String contentType) {
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.Codec;
+import com.liveaction.reactiff.codec.BufferBatching;
 import io.netty.buffer.ByteBuf;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -17,6 +18,12 @@ public final class SmileBinaryCodec extends JacksonCodec implements Codec {
         super(objectCodec, new SmileFactory());
     }
 
+    @Override
+    public SmileBinaryCodec withBufferBatching(BufferBatching bufferBatching) {
+        super.withBufferBatching(bufferBatching);
+        return this;
+    }
+
     @Override
     public int rank() {
         return 2;
@@ -39,6 +46,6 @@ public final class SmileBinaryCodec extends JacksonCodec implements Codec {
 
     @Override
     public <T> Publisher<ByteBuf> encode(String contentType, Publisher<T> data, TypeToken<T> typeToken) {
-        return super.encode(data, true);
+        return super.encode(data, typeToken, true);
     }
 }
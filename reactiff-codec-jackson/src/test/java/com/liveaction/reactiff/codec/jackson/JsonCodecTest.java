@@ -4,24 +4,37 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Files;
 import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.api.server.Result;
+import com.liveaction.reactiff.codec.BufferBatching;
 import com.liveaction.reactiff.codec.jackson.model.*;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.ByteBufFlux;
 import reactor.test.StepVerifier;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.google.common.base.Charsets.UTF_8;
 
@@ -117,4 +130,212 @@ public class JsonCodecTest {
         Assertions.assertThat(actual).isEqualTo(Files.asCharSource(new File(getClass().getResource("/expected_pojomap.json").getFile()), UTF_8).read());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldBatchFluxElements() {
+        tested.withBufferBatching(BufferBatching.of(1024, Duration.ofMillis(100)));
+        Flux<Pojo> toEncode = Flux.range(0, 1000)
+                .map(i -> new Pojo("test", "value_" + i));
+        StepVerifier.create(Flux.from(tested.encode("application/json", toEncode, TypeToken.of(Pojo.class)))
+                        .map(byteBuf -> {
+                            int size = byteBuf.readableBytes();
+                            byteBuf.release();
+                            return size;
+                        })
+                        .collectList())
+                .assertNext(sizes -> {
+                    Assertions.assertThat(sizes.size()).isLessThan(100);
+                    Assertions.assertThat(sizes.subList(0, sizes.size() - 1)).allMatch(size -> size >= 1024);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldBatchIntoBuffersOfCodecAllocator() {
+        ByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+        tested.withByteBufAllocator(allocator)
+                .withBufferBatching(BufferBatching.of(1024, Duration.ofMillis(100)));
+        Flux<Pojo> toEncode = Flux.range(0, 100)
+                .map(i -> new Pojo("test", "value_" + i));
+        StepVerifier.create(Flux.from(tested.encode("application/json", toEncode, TypeToken.of(Pojo.class)))
+                        .map(byteBuf -> {
+                            ByteBufAllocator alloc = byteBuf.alloc();
+                            byteBuf.release();
+                            return alloc;
+                        })
+                        .collectList())
+                .assertNext(allocators -> Assertions.assertThat(allocators).containsOnly(allocator))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldNotDelayBatchedSlowStream() {
+        tested.withBufferBatching(BufferBatching.of(1024, Duration.ofMillis(150)));
+        StepVerifier.withVirtualTime(() -> {
+            Flux<Pojo> toEncode = Flux.range(0, 2)
+                    .delayElements(Duration.ofMillis(1000))
+                    .map(i -> new Pojo("test", "value_" + i));
+            Publisher<ByteBuf> byteBufFlux = Flux.from(tested.encode("application/stream+json", toEncode, TypeToken.of(Pojo.class)));
+            return tested.decodeFlux("application/stream+json", byteBufFlux, new TypeToken<Pojo>() {
+            });
+        })
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(1000))
+                .thenAwait(Duration.ofMillis(100))
+                .expectNext(new Pojo("test", "value_0"))
+                .thenAwait(Duration.ofMillis(1000))
+                .expectNext(new Pojo("test", "value_1"))
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+    }
+
+    @Test
+    public void shouldEncodeLargeMonoValueIntoChunks() {
+        UnpooledByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+        tested.withByteBufAllocator(allocator);
+        Pojo pojo = new Pojo("test", Strings.repeat("value", 10_000));
+
+        ByteBuf encoded = Mono.from(tested.encode("application/json", Mono.just(pojo), TypeToken.of(Pojo.class))).block();
+
+        Assertions.assertThat(encoded).isInstanceOf(CompositeByteBuf.class);
+        Assertions.assertThat(((CompositeByteBuf) encoded).numComponents()).isGreaterThan(1);
+        for (ByteBuf component : (CompositeByteBuf) encoded) {
+            Assertions.assertThat(component.capacity()).isLessThanOrEqualTo(8192);
+        }
+        Assertions.assertThat(tested.decodeMono("application/json", Mono.just(encoded), TypeToken.of(Pojo.class)).block())
+                .isEqualTo(pojo);
+        encoded.release();
+        Assertions.assertThat(allocator.metric().usedHeapMemory()).isZero();
+    }
+
+    @Test
+    public void shouldReleaseBuffersOfFailedMonoValue() {
+        UnpooledByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+        tested.withByteBufAllocator(allocator);
+        // the large value is written before the serializer fails
+        Mono<ImmutableList<Object>> toEncode = Mono.just(ImmutableList.of(new Pojo("test", Strings.repeat("value", 10_000)), new ModuledPojo("myType", "myVal")));
+
+        StepVerifier.create(Flux.from(tested.encode("application/json", toEncode, new TypeToken<ImmutableList<Object>>() {
+                })))
+                .expectError(InvalidDefinitionException.class)
+                .verify();
+        Assertions.assertThat(allocator.metric().usedHeapMemory()).isZero();
+    }
+
+    @Test
+    public void shouldReleaseBuffersOfFluxOnceSent() {
+        UnpooledByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+        tested.withByteBufAllocator(allocator);
+        List<ByteBuf> sent = new ArrayList<>();
+
+        StepVerifier.create(Flux.from(tested.encode("application/stream+json", Flux.range(0, 100).map(i -> new Pojo("test", "value_" + i)), TypeToken.of(Pojo.class)))
+                        .doOnNext(sent::add))
+                .expectNextCount(100)
+                .verifyComplete();
+        Assertions.assertThat(sent).allMatch(byteBuf -> byteBuf.refCnt() == 1);
+        sent.forEach(ByteBuf::release);
+        Assertions.assertThat(allocator.metric().usedHeapMemory()).isZero();
+    }
+
+    @Test
+    public void shouldKeepSentBuffersAliveWhenFluxSerializationFails() {
+        UnpooledByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+        tested.withByteBufAllocator(allocator);
+        List<ByteBuf> sent = new ArrayList<>();
+        Flux<Object> toEncode = Flux.just(new Pojo("test", "value_0"), new Pojo("test", "value_1"), new ModuledPojo("myType", "myVal"), new Pojo("test", "value_2"));
+
+        StepVerifier.create(Flux.from(tested.encode("application/stream+json", toEncode, TypeToken.of(Object.class)))
+                        .doOnNext(sent::add))
+                .expectNextCount(2)
+                .expectError(InvalidDefinitionException.class)
+                .verify();
+        // the buffers sent before the error are still to be written and released by the transport
+        Assertions.assertThat(sent).allMatch(byteBuf -> byteBuf.refCnt() == 1);
+        Assertions.assertThat(sent.stream().map(byteBuf -> byteBuf.toString(UTF_8)))
+                .containsExactly("{\"type\":\"test\",\"value\":\"value_0\"}", " {\"type\":\"test\",\"value\":\"value_1\"}");
+        sent.forEach(ByteBuf::release);
+        Assertions.assertThat(allocator.metric().usedHeapMemory()).isZero();
+    }
+
+    @Test
+    public void shouldParseEachBufferBeforeItIsReleased() {
+        List<Pojo> expected = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 15; i++) {
+            expected.add(new Pojo("test", "value_" + i));
+            body.append("{\"type\":\"test\",\"value\":\"value_").append(i).append("\"}");
+        }
+        // several elements per buffer, some split across buffers
+        List<ByteBuf> received = new ArrayList<>();
+        for (int start = 0; start < body.length(); start += 100) {
+            received.add(Unpooled.copiedBuffer(body.substring(start, Math.min(start + 100, body.length())), UTF_8));
+        }
+
+        // consumed one element at a time, on another thread
+        StepVerifier.create(tested.decodeFlux("application/stream+json", releasedOnceHandedOver(received), TypeToken.of(Pojo.class))
+                        .publishOn(Schedulers.single(), 1))
+                .expectNextSequence(expected)
+                .verifyComplete();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldEnrichResultWithoutContentTypeOnly() {
+        Result<String> typed = Result.<String>builder()
+                .data(Mono.just("data"), String.class)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/vnd.test+json")
+                .build();
+        StepVerifier.create(tested.enrich(typed, "application/json"))
+                .assertNext(enriched -> Assertions.assertThat(enriched).isSameAs(typed))
+                .verifyComplete();
+
+        Result<String> untyped = Result.<String>builder()
+                .data(Mono.just("data"), String.class)
+                .header("X-Test", "value")
+                .build();
+        StepVerifier.create(tested.enrich(untyped, "application/json"))
+                .assertNext(enriched -> {
+                    Assertions.assertThat(enriched.headers().get("Content-Type")).isEqualTo("application/json; charset=UTF-8");
+                    Assertions.assertThat(enriched.headers().get("X-Test")).isEqualTo("value");
+                    Assertions.assertThat(enriched.data()).isSameAs(untyped.data());
+                })
+                .verifyComplete();
+        Assertions.assertThat(untyped.headers().contains(HttpHeaderNames.CONTENT_TYPE)).isFalse();
+    }
+
+    /**
+     * Like the request body, each buffer is released as soon as onNext returns.
+     */
+    private static Flux<ByteBuf> releasedOnceHandedOver(List<ByteBuf> buffers) {
+        return Flux.from(subscriber -> subscriber.onSubscribe(new Subscription() {
+            private int index;
+            private long requested;
+            private boolean emitting;
+
+            @Override
+            public void request(long n) {
+                requested = Operators.addCap(requested, n);
+                if (emitting) {
+                    return;
+                }
+                emitting = true;
+                while (requested > 0 && index < buffers.size()) {
+                    requested--;
+                    ByteBuf byteBuf = buffers.get(index++);
+                    subscriber.onNext(byteBuf);
+                    byteBuf.release();
+                }
+                emitting = false;
+                if (index == buffers.size()) {
+                    index++;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                index = buffers.size() + 1;
+            }
+        }));
+    }
+
+}
@@ -12,6 +12,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
 import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.codec.BufferBatching;
 import com.liveaction.reactiff.codec.jackson.model.Pojo;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -29,9 +30,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class SmileBinaryCodecTest {
@@ -64,6 +67,24 @@ public class SmileBinaryCodecTest {
                 .verify(Duration.ofMillis(200));
     }
 
+    @Test
+    public void shouldBatchFluxElements() {
+        SmileBinaryCodec codec = new SmileBinaryCodec(new ObjectMapper())
+                .withBufferBatching(BufferBatching.of(1024, Duration.ofMillis(100)));
+        List<Pojo> pojos = IntStream.range(0, 1000)
+                .mapToObj(i -> new Pojo("test", "value_" + i))
+                .collect(Collectors.toList());
+        List<Integer> sizes = new ArrayList<>();
+
+        Flux<ByteBuf> encoded = Flux.from(codec.encode(SmileBinaryCodec.APPLICATION_BINARY, Flux.fromIterable(pojos), TypeToken.of(Pojo.class)))
+                .doOnNext(byteBuf -> sizes.add(byteBuf.readableBytes()));
+        StepVerifier.create(codec.decodeFlux(SmileBinaryCodec.APPLICATION_BINARY, encoded, TypeToken.of(Pojo.class)).collectList())
+                .expectNext(pojos)
+                .verifyComplete();
+        Assertions.assertThat(sizes.size()).isLessThan(100);
+        Assertions.assertThat(sizes.subList(0, sizes.size() - 1)).allMatch(size -> size >= 1024);
+    }
+
     @Test
     public void shouldDeserializeFluxOfRanges() {
         ObjectMapper objectCodec = new ObjectMapper();
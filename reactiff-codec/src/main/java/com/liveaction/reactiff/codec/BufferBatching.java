@@ -0,0 +1,96 @@
+package com.liveaction.reactiff.codec;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.EmptyByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Coalesces the buffers of a streamed response, one per encoded element, into buffers of about a target size so that
+ * they are written and flushed to the channel in fewer operations. A partial batch is emitted once the linger time has
+ * elapsed, so that slow streams are not delayed. Backpressure is preserved : elements are only requested from the
+ * source when a batch is requested.
+ */
+public final class BufferBatching {
+
+    public static final BufferBatching NONE = new BufferBatching(0, null);
+
+    private static final int PREFETCH = 32;
+
+    // emitted when the linger time elapses, compared by identity
+    private static final ByteBuf LINGER_ELAPSED = new EmptyByteBuf(UnpooledByteBufAllocator.DEFAULT);
+
+    private final int targetSize;
+    private final Duration maxLinger;
+
+    private BufferBatching(int targetSize, Duration maxLinger) {
+        this.targetSize = targetSize;
+        this.maxLinger = maxLinger;
+    }
+
+    /**
+     * @param targetSize size in bytes from which a batch is emitted, 16 to 64 KB are sensible values
+     * @param maxLinger  time after which a partial batch is emitted
+     */
+    public static BufferBatching of(int targetSize, Duration maxLinger) {
+        Preconditions.checkArgument(targetSize > 0, "targetSize must be positive");
+        Preconditions.checkArgument(maxLinger != null && !maxLinger.isNegative() && !maxLinger.isZero(), "maxLinger must be positive");
+        return new BufferBatching(targetSize, maxLinger);
+    }
+
+    public Flux<ByteBuf> apply(Flux<ByteBuf> buffers) {
+        if (targetSize <= 0) {
+            return buffers;
+        }
+        return Flux.defer(() -> {
+            Sinks.Empty<Void> terminated = Sinks.empty();
+            Flux<ByteBuf> lingerElapsed = Flux.interval(maxLinger, maxLinger)
+                    .onBackpressureDrop()
+                    .map(tick -> LINGER_ELAPSED)
+                    .takeUntilOther(terminated.asMono());
+            Flux<ByteBuf> source = buffers
+                    .doFinally(signal -> terminated.tryEmitEmpty());
+            int[] batchSize = {0};
+            return Flux.merge(PREFETCH, source, lingerElapsed)
+                    .bufferUntil(buffer -> {
+                        if (buffer == LINGER_ELAPSED) {
+                            batchSize[0] = 0;
+                            return true;
+                        }
+                        batchSize[0] += buffer.readableBytes();
+                        if (batchSize[0] >= targetSize) {
+                            batchSize[0] = 0;
+                            return true;
+                        }
+                        return false;
+                    })
+                    .<ByteBuf>handle((batch, sink) -> {
+                        ByteBuf buffer = toBuffer(batch);
+                        if (buffer != null) {
+                            sink.next(buffer);
+                        }
+                    })
+                    .doOnDiscard(ByteBuf.class, ByteBuf::release);
+        });
+    }
+
+    private static ByteBuf toBuffer(List<ByteBuf> batch) {
+        batch.removeIf(buffer -> buffer == LINGER_ELAPSED);
+        if (batch.isEmpty()) {
+            return null;
+        } else if (batch.size() == 1) {
+            return batch.get(0);
+        }
+        // allocated as the batched buffers, from the allocator the codec was given
+        CompositeByteBuf composite = batch.get(0).alloc().compositeBuffer(batch.size());
+        composite.addComponents(true, batch);
+        return composite;
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.liveaction.reactiff.codec;
 
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.Codec;
@@ -15,28 +17,30 @@ import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.http.server.HttpServerRequest;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuples;
 
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.stream.StreamSupport;
 
 public final class CodecManagerImpl implements CodecManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CodecManagerImpl.class);
     private static final String DEFAULT_CONTENT_TYPE = "application/json";
     private static final String ACCEPT_ALL_HEADER = "*/*";
-    private static final ImmutableList<String> DEFAULT_ACCEPT_HEADERS = ImmutableList.of("application/json", "text/plain");
+    // the content types negotiated when any is accepted
+    private static final String DEFAULT_ACCEPT_HEADER = String.join(",", ImmutableList.of("application/json", "text/plain"));
+    private static final Splitter ACCEPT_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Splitter PARAMETER_SPLITTER = Splitter.on(';').trimResults();
+    private static final int CACHE_SIZE = 512;
 
     private final Set<Codec> codecs = new ConcurrentSkipListSet<>(Comparator.comparingInt(Codec::rank));
 
-    private String defaultContentType = DEFAULT_CONTENT_TYPE;
+    private volatile String defaultContentType = DEFAULT_CONTENT_TYPE;
+    // replaced each time the codecs or the default content type change
+    private volatile Caches caches = new Caches();
 
     @Override
     public void addCodec(Codec codec) {
@@ -44,16 +48,19 @@ public final class CodecManagerImpl implements CodecManager {
         if (!add) {
             LOGGER.warn("Codec rank conflict : {} (rank = {}). It has not been added. Fix this !", codec, codec.rank());
         }
+        caches = new Caches();
     }
 
     @Override
     public void removeCodec(Codec codec) {
-        codecs.add(codec);
+        codecs.remove(codec);
+        caches = new Caches();
     }
 
     @Override
     public void setDefaultContentType(String defaultContentType) {
         this.defaultContentType = defaultContentType;
+        caches = new Caches();
     }
 
     @Override
@@ -89,7 +96,7 @@ public final class CodecManagerImpl implements CodecManager {
     public <T> Mono<Result<T>> enrichResult(HttpHeaders requestHttpHeaders, HttpHeaders responseHttpHeaders, Result<T> result) {
         String contentTypeHeader = responseHttpHeaders.get(HttpHeaderNames.CONTENT_TYPE);
         final String contentType = contentTypeHeader == null ?
-                negotiateContentType(getAcceptHeaders(requestHttpHeaders), result.type()) :
+                negotiateContentType(getAcceptHeader(requestHttpHeaders), result.type()) :
                 contentTypeHeader;
 
         return getOptionalCodec(contentType, result.type())
@@ -97,12 +104,13 @@ public final class CodecManagerImpl implements CodecManager {
                 .orElse(Mono.just(result));
     }
 
-    private Collection<String> getAcceptHeaders(HttpHeaders requestHttpHeaders) {
+    private String getAcceptHeader(HttpHeaders requestHttpHeaders) {
         List<String> acceptHeaders = requestHttpHeaders.getAll(HttpHeaderNames.ACCEPT);
-        if (acceptHeaders.size() == 1 && acceptHeaders.get(0).equals(ACCEPT_ALL_HEADER)) {
-            return DEFAULT_ACCEPT_HEADERS;
+        if (acceptHeaders.size() == 1) {
+            String acceptHeader = acceptHeaders.get(0);
+            return acceptHeader.equals(ACCEPT_ALL_HEADER) ? DEFAULT_ACCEPT_HEADER : acceptHeader;
         } else {
-            return acceptHeaders;
+            return String.join(",", acceptHeaders);
         }
     }
 
@@ -110,7 +118,7 @@ public final class CodecManagerImpl implements CodecManager {
     public <T> Publisher<ByteBuf> encode(HttpHeaders requestHttpHeaders, HttpHeaders responseHttpHeaders, Publisher<T> data, TypeToken<T> typeToken) {
         String contentType = responseHttpHeaders.get(HttpHeaderNames.CONTENT_TYPE);
         if (contentType == null) {
-            contentType = negotiateContentType(getAcceptHeaders(requestHttpHeaders), typeToken);
+            contentType = negotiateContentType(getAcceptHeader(requestHttpHeaders), typeToken);
         }
         return encodeAs(contentType, responseHttpHeaders, data, typeToken);
     }
@@ -127,7 +135,7 @@ public final class CodecManagerImpl implements CodecManager {
     public <T> Publisher<ByteBuf> encodeAs(HttpHeaders requestHttpHeaders, Publisher<T> data, TypeToken<T> typeToken) {
         String contentType = requestHttpHeaders.get(HttpHeaderNames.CONTENT_TYPE);
         if (contentType == null) {
-            contentType = negotiateContentType(getAcceptHeaders(requestHttpHeaders), typeToken);
+            contentType = negotiateContentType(getAcceptHeader(requestHttpHeaders), typeToken);
         }
         return encodeAs(getCodec(contentType, typeToken), contentType, data, typeToken);
     }
@@ -146,41 +154,116 @@ public final class CodecManagerImpl implements CodecManager {
     }
 
     private <T> Optional<Codec> getOptionalCodec(String contentType, TypeToken<T> typeToken) {
-        return codecs.stream()
-                .filter(myCodec -> myCodec.supports(contentType, typeToken))
-                .findFirst();
-
-    }
-
-    private String negotiateContentType(Collection<String> acceptHeader, TypeToken<?> typeToken) {
-        return acceptHeader.stream()
-                .flatMap(s -> StreamSupport.stream(Splitter.on(',').split(s).spliterator(), false))
-                .map(String::trim)
-                .map(contentType -> codecs.stream()
-                        .map(codec -> {
-                            if (codec.supports(contentType, typeToken)) {
-                                return Tuples.of(contentType, codec);
-                            } else {
-                                return null;
-                            }
-                        })
-                        .filter(Objects::nonNull)
-                        .findFirst())
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .sorted(Comparator.comparingInt(tuple -> tuple.getT2().rank()))
-                .map(Tuple2::getT1)
-                .findFirst()
-                .orElse(defaultContentType);
+        if (contentType == null) {
+            // no codec supports a missing content type, as if it was an unknown one
+            return Optional.empty();
+        }
+        Caches caches = this.caches;
+        CacheKey key = new CacheKey(contentType, typeToken);
+        Optional<Codec> codec = caches.codecs.getIfPresent(key);
+        if (codec == null) {
+            codec = codecs.stream()
+                    .filter(myCodec -> myCodec.supports(contentType, typeToken))
+                    .findFirst();
+            caches.codecs.put(key, codec);
+        }
+        return codec;
+    }
+
+    private String negotiateContentType(String accept, TypeToken<?> typeToken) {
+        Caches caches = this.caches;
+        CacheKey key = new CacheKey(accept, typeToken);
+        String contentType = caches.negotiatedContentTypes.getIfPresent(key);
+        if (contentType == null) {
+            contentType = negotiate(accept, typeToken);
+            caches.negotiatedContentTypes.put(key, contentType);
+        }
+        return contentType;
+    }
+
+    /**
+     * Picks the accepted content type with the highest quality factor, then the one whose codec has the lowest rank,
+     * then the first declared. Content types with a zero quality factor are not acceptable.
+     */
+    private String negotiate(String accept, TypeToken<?> typeToken) {
+        String negotiated = null;
+        double negotiatedQuality = 0;
+        int negotiatedRank = Integer.MAX_VALUE;
+        for (String mediaRange : ACCEPT_SPLITTER.split(accept)) {
+            StringBuilder contentType = new StringBuilder();
+            double quality = 1;
+            boolean qualified = false;
+            for (String parameter : PARAMETER_SPLITTER.split(mediaRange)) {
+                if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') && parameter.charAt(1) == '=') {
+                    quality = parseQuality(parameter.substring(2));
+                    qualified = true;
+                    // the remaining parameters are accept extensions
+                    break;
+                }
+                if (contentType.length() > 0) {
+                    contentType.append(';');
+                }
+                contentType.append(parameter);
+            }
+            if (quality <= 0 || quality < negotiatedQuality) {
+                continue;
+            }
+            String candidate = qualified ? contentType.toString() : mediaRange;
+            Optional<Codec> codec = getOptionalCodec(candidate, typeToken);
+            if (codec.isPresent() && (quality > negotiatedQuality || codec.get().rank() < negotiatedRank)) {
+                negotiated = candidate;
+                negotiatedQuality = quality;
+                negotiatedRank = codec.get().rank();
+            }
+        }
+        return negotiated == null ? defaultContentType : negotiated;
+    }
+
+    private static double parseQuality(String quality) {
+        try {
+            return Double.parseDouble(quality);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
     }
 
     private Mono<Codec> findCodec(String contentType, TypeToken<?> typeToken) {
-        return codecs.stream()
-                .filter(myCodec -> myCodec.supports(contentType, typeToken))
-                .findFirst()
+        return getOptionalCodec(contentType, typeToken)
                 .map(Mono::just)
                 .orElseGet(() -> Mono.error(new IllegalArgumentException("Unable to find a decoder that supports Content-Type '" + contentType + "' and type '" + typeToken + "'")))
                 .doOnNext(v -> LOGGER.debug("Found a decoder for Content-Type='{}'", contentType));
     }
 
+    private static final class Caches {
+
+        private final Cache<CacheKey, String> negotiatedContentTypes = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+        private final Cache<CacheKey, Optional<Codec>> codecs = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+    }
+
+    private static final class CacheKey {
+
+        private final String contentType;
+        private final TypeToken<?> typeToken;
+
+        private CacheKey(String contentType, TypeToken<?> typeToken) {
+            this.contentType = contentType;
+            this.typeToken = typeToken;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return contentType.equals(cacheKey.contentType) && Objects.equals(typeToken, cacheKey.typeToken);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * contentType.hashCode() + Objects.hashCode(typeToken);
+        }
+
+    }
+
 }
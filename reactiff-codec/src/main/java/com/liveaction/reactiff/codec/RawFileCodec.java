@@ -1,23 +1,31 @@
 package com.liveaction.reactiff.codec;
 
+import com.google.common.base.Preconditions;
 import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.Codec;
 import com.liveaction.reactiff.api.server.Result;
 import com.liveaction.reactiff.api.server.utils.MimeType;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.util.ReferenceCountUtil;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.ByteBufFlux;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public final class RawFileCodec implements Codec {
 
@@ -25,6 +33,19 @@ public final class RawFileCodec implements Codec {
 
     private static final TypeToken<File> FILE = TypeToken.of(File.class);
     private static final TypeToken<Path> PATH = TypeToken.of(Path.class);
+    private static final int DEFAULT_CHUNK_SIZE = 512 * 1024;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Size of the chunks files are read in when they cannot be sent as is by the server, e.g. over TLS or with
+     * compression. 512 KB by default.
+     */
+    public RawFileCodec withChunkSize(int chunkSize) {
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be positive");
+        this.chunkSize = chunkSize;
+        return this;
+    }
 
     @Override
     public int rank() {
@@ -50,37 +71,28 @@ public final class RawFileCodec implements Codec {
         return Flux.error(new IllegalArgumentException("Cannot get a flux from file"));
     }
 
+    /**
+     * Spools the body into a temporary file, created on subscription. The next buffer is only requested once the
+     * previous one has been written, without blocking the calling thread : the file is created, and deleted when the
+     * upload fails, on the bounded elastic scheduler.
+     */
     @SuppressWarnings("unchecked")
     private <T> Publisher<T> decode(Publisher<ByteBuf> byteBufFlux, TypeToken<T> typeToken) {
         if (isFileOrPath(typeToken)) {
-            try {
-                File file = File.createTempFile("reactiff-upload", ".raw");
-                FileOutputStream out = new FileOutputStream(file);
-                Mono<Void> writeFlux = Flux.from(byteBufFlux)
-                        .concatMap(bytes -> {
-                            try {
-                                bytes.readBytes(out, bytes.readableBytes());
-                            } catch (IOException e) {
-                                return Mono.error(e);
-                            }
-                            return Mono.empty();
-                        })
-                        .then()
-                        .doFinally(signalType -> {
-                            try {
-                                out.close();
-                            } catch (IOException e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
-                if (FILE.isSupertypeOf(typeToken)) {
-                    return writeFlux.thenReturn((T) file);
-                } else {
-                    return writeFlux.thenReturn((T) file.toPath());
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            return Mono.usingWhen(Mono.fromCallable(Upload::create).subscribeOn(Schedulers.boundedElastic()),
+                    upload -> Flux.from(byteBufFlux)
+                            // buffers are written once the inbound has released them
+                            .map(ByteBuf::retain)
+                            .concatMap(upload::write, 0)
+                            .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease)
+                            .then(Mono.fromCallable(() -> {
+                                upload.complete();
+                                return FILE.isSupertypeOf(typeToken) ? (T) upload.file.toFile() : (T) upload.file;
+                            })),
+                    // the completed file is kept, there is nothing to delete
+                    upload -> Mono.fromRunnable(upload::close),
+                    (upload, throwable) -> upload.delete(),
+                    Upload::delete);
         } else {
             throw new IllegalArgumentException("Unable to encode to type '" + typeToken + "'");
         }
@@ -99,7 +111,7 @@ public final class RawFileCodec implements Codec {
         } else {
             throw new IllegalArgumentException("Unable to encode type '" + typeToken + "'");
         }
-        return path.flatMapMany(ByteBufFlux::fromPath);
+        return path.flatMapMany(file -> ByteBufFlux.fromPath(file, chunkSize));
     }
 
     @Override
@@ -121,16 +133,119 @@ public final class RawFileCodec implements Codec {
                     } catch (IOException e) {
                         LOGGER.debug("Cannot get size of {}", item);
                     }
-                    Result.Builder<T> resultBuilder = result.copy()
-                            .data((Publisher<T>) Mono.just(item), result.type())
-                            .header(HttpHeaderNames.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                            .header(HttpHeaderNames.CONTENT_TYPE, new MimeType(fileName).toString(), false);
-                    if (size != -1) {
-                        resultBuilder
-                                .header(HttpHeaderNames.CONTENT_LENGTH, Long.toString(size), false);
-                    }
-                    return resultBuilder.build();
+                    long contentLength = size;
+                    return result.withData((Publisher<T>) Mono.just(item))
+                            .withHeaders(headers -> {
+                                if (!headers.contains(HttpHeaderNames.CONTENT_DISPOSITION)) {
+                                    headers.set(HttpHeaderNames.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+                                }
+                                if (!headers.contains(HttpHeaderNames.CONTENT_TYPE)) {
+                                    headers.set(HttpHeaderNames.CONTENT_TYPE, new MimeType(fileName).toString());
+                                }
+                                if (contentLength != -1 && !headers.contains(HttpHeaderNames.CONTENT_LENGTH)) {
+                                    headers.set(HttpHeaderNames.CONTENT_LENGTH, Long.toString(contentLength));
+                                }
+                            });
                 });
 
     }
+
+    private static final class Upload {
+
+        private final Path file;
+        private final AsynchronousFileChannel channel;
+        private long position = 0;
+        private boolean completed = false;
+
+        private Upload(Path file, AsynchronousFileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        private static Upload create() throws IOException {
+            Path file = Files.createTempFile("reactiff-upload", ".raw");
+            try {
+                return new Upload(file, AsynchronousFileChannel.open(file, StandardOpenOption.WRITE));
+            } catch (IOException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        }
+
+        private Mono<Void> write(ByteBuf byteBuf) {
+            return Mono.create(sink -> {
+                ByteBuf direct = byteBuf;
+                if (!byteBuf.isDirect()) {
+                    direct = ByteBufAllocator.DEFAULT.directBuffer(byteBuf.readableBytes()).writeBytes(byteBuf);
+                    byteBuf.release();
+                }
+                new ChannelWrite(direct, sink).next();
+            });
+        }
+
+        /**
+         * Writes the buffer at the end of the file, one nio buffer after the other.
+         */
+        private final class ChannelWrite implements CompletionHandler<Integer, Void> {
+
+            private final ByteBuf byteBuf;
+            private final ByteBuffer[] buffers;
+            private final MonoSink<Void> sink;
+            private int index = 0;
+
+            private ChannelWrite(ByteBuf byteBuf, MonoSink<Void> sink) {
+                this.byteBuf = byteBuf;
+                this.buffers = byteBuf.nioBuffers();
+                this.sink = sink;
+            }
+
+            private void next() {
+                while (index < buffers.length && !buffers[index].hasRemaining()) {
+                    index++;
+                }
+                if (index == buffers.length) {
+                    byteBuf.release();
+                    sink.success();
+                } else {
+                    channel.write(buffers[index], position, null, this);
+                }
+            }
+
+            @Override
+            public void completed(Integer result, Void attachment) {
+                position += result;
+                next();
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                byteBuf.release();
+                sink.error(exc);
+            }
+        }
+
+        private void complete() throws IOException {
+            channel.close();
+            completed = true;
+        }
+
+        /**
+         * The file is deleted unless it has been completely written.
+         */
+        private void close() {
+            try {
+                channel.close();
+                if (!completed) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Cannot clean up upload file {}", file, e);
+            }
+        }
+
+        private Mono<Void> delete() {
+            return Mono.<Void>fromRunnable(this::close)
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+    }
 }
@@ -14,6 +14,16 @@ public final class TextPlainCodec implements Codec {
 
     private static final TypeToken<Mono> MONO_TYPE_TOKEN = TypeToken.of(Mono.class);
 
+    private BufferBatching bufferBatching = BufferBatching.NONE;
+
+    /**
+     * Batching of the buffers encoded from a {@link Flux}, none by default : one buffer is sent per element.
+     */
+    public TextPlainCodec withBufferBatching(BufferBatching bufferBatching) {
+        this.bufferBatching = bufferBatching;
+        return this;
+    }
+
     @Override
     public int rank() {
         return 0;
@@ -51,8 +61,8 @@ public final class TextPlainCodec implements Codec {
                 return Mono.from(data)
                         .map(t -> Unpooled.wrappedBuffer(t.toString().getBytes(Charsets.UTF_8)));
             } else {
-                return Flux.from(data)
-                        .map(t -> Unpooled.wrappedBuffer(t.toString().getBytes(Charsets.UTF_8)));
+                return bufferBatching.apply(Flux.from(data)
+                        .map(t -> Unpooled.wrappedBuffer(t.toString().getBytes(Charsets.UTF_8))));
             }
         } else {
             throw new IllegalArgumentException("Unable to encode from type '" + typeToken + "'. Only string supported");
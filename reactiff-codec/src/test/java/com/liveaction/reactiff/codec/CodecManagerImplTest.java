@@ -0,0 +1,169 @@
+package com.liveaction.reactiff.codec;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.api.codec.Codec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class CodecManagerImplTest {
+
+    private static final TypeToken<String> STRING = TypeToken.of(String.class);
+
+    private final NamedCodec jsonCodec = new NamedCodec(1, "application/json", "application/stream+json");
+    private final NamedCodec textCodec = new NamedCodec(2, "text/plain", "text/html");
+
+    private CodecManagerImpl tested;
+
+    @Before
+    public void setUp() {
+        tested = new CodecManagerImpl();
+        tested.addCodec(jsonCodec);
+        tested.addCodec(textCodec);
+    }
+
+    private String negotiate(String... accept) {
+        HttpHeaders requestHeaders = new DefaultHttpHeaders();
+        for (String value : accept) {
+            requestHeaders.add(HttpHeaderNames.ACCEPT, value);
+        }
+        HttpHeaders responseHeaders = new DefaultHttpHeaders();
+        tested.encode(requestHeaders, responseHeaders, Mono.just("value"), STRING);
+        return responseHeaders.get(HttpHeaderNames.CONTENT_TYPE);
+    }
+
+    @Test
+    public void shouldNegotiateHighestQuality() {
+        Assertions.assertThat(negotiate("application/json;q=0.5, text/plain")).isEqualTo("text/plain");
+        Assertions.assertThat(negotiate("text/plain;q=0.2, application/json;q=0.8")).isEqualTo("application/json");
+        Assertions.assertThat(negotiate("text/plain;q=0.2", "text/html;q=0.3")).isEqualTo("text/html");
+        Assertions.assertThat(negotiate("text/plain;charset=utf-8;q=0.9;ext=1, application/json;q=0.5")).isEqualTo("text/plain;charset=utf-8");
+    }
+
+    @Test
+    public void shouldNegotiateLowestRankThenFirstDeclaredAmongEqualQualities() {
+        Assertions.assertThat(negotiate("text/plain, application/json")).isEqualTo("application/json");
+        Assertions.assertThat(negotiate("text/html;q=0.5, text/plain;q=0.5")).isEqualTo("text/html");
+        Assertions.assertThat(negotiate("text/plain;q=invalid, application/json;q=0.5")).isEqualTo("text/plain");
+    }
+
+    @Test
+    public void shouldNotNegotiateZeroQuality() {
+        Assertions.assertThat(negotiate("application/json;q=0, text/plain;q=0.1")).isEqualTo("text/plain");
+        Assertions.assertThat(negotiate("application/json;q=0.0, text/plain;q=0")).isEqualTo("application/json");
+        tested.setDefaultContentType("text/html");
+        Assertions.assertThat(negotiate("application/json;q=0, text/plain;q=0")).isEqualTo("text/html");
+    }
+
+    @Test
+    public void shouldNegotiateDefaultsForWildcards() {
+        Assertions.assertThat(negotiate("*/*")).isEqualTo("application/json");
+        Assertions.assertThat(negotiate()).isEqualTo("application/json");
+        Assertions.assertThat(negotiate("image/*")).isEqualTo("application/json");
+
+        tested.removeCodec(jsonCodec);
+        tested.setDefaultContentType("text/html");
+        Assertions.assertThat(negotiate("*/*")).isEqualTo("text/plain");
+        Assertions.assertThat(negotiate("image/*")).isEqualTo("text/html");
+    }
+
+    @Test
+    public void shouldInvalidateNegotiationOnCodecChanges() {
+        tested.removeCodec(textCodec);
+        Assertions.assertThat(negotiate("text/plain")).isEqualTo("application/json");
+
+        tested.addCodec(textCodec);
+        Assertions.assertThat(negotiate("text/plain")).isEqualTo("text/plain");
+
+        tested.removeCodec(textCodec);
+        Assertions.assertThat(negotiate("text/plain")).isEqualTo("application/json");
+    }
+
+    @Test
+    public void shouldInvalidateNegotiationOnDefaultContentTypeChange() {
+        Assertions.assertThat(negotiate("image/png")).isEqualTo("application/json");
+
+        tested.setDefaultContentType("text/plain");
+        Assertions.assertThat(negotiate("image/png")).isEqualTo("text/plain");
+    }
+
+    @Test
+    public void shouldRemoveCodec() {
+        HttpHeaders httpHeaders = new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, "text/plain");
+        StepVerifier.create(tested.decodeAsMono(httpHeaders, Flux.empty(), STRING))
+                .expectNext("text/plain")
+                .verifyComplete();
+
+        tested.removeCodec(textCodec);
+        StepVerifier.create(tested.decodeAsMono(httpHeaders, Flux.empty(), STRING))
+                .expectErrorSatisfies(e -> Assertions.assertThat(e)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("text/plain"))
+                .verify();
+
+        tested.addCodec(textCodec);
+        StepVerifier.create(tested.decodeAsMono(httpHeaders, Flux.empty(), STRING))
+                .expectNext("text/plain")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldNotFindCodecForMissingContentType() {
+        Assertions.assertThatThrownBy(() -> tested.encodeAs(null, new DefaultHttpHeaders(), Mono.just("value"), STRING))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Content-Type 'null'");
+    }
+
+    /**
+     * Supports the given content types for any type, and decodes any body as the content type it was found for.
+     */
+    private static final class NamedCodec implements Codec {
+
+        private final int rank;
+        private final ImmutableSet<String> contentTypes;
+
+        private NamedCodec(int rank, String... contentTypes) {
+            this.rank = rank;
+            this.contentTypes = ImmutableSet.copyOf(contentTypes);
+        }
+
+        @Override
+        public int rank() {
+            return rank;
+        }
+
+        @Override
+        public boolean supports(String contentType, TypeToken<?> typeToken) {
+            return contentTypes.stream().anyMatch(contentType::startsWith);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> Mono<T> decodeMono(String contentType, Publisher<ByteBuf> byteBufFlux, TypeToken<T> typeToken) {
+            return Mono.just((T) contentType);
+        }
+
+        @Override
+        public <T> Flux<T> decodeFlux(String contentType, Publisher<ByteBuf> byteBufFlux, TypeToken<T> typeToken) {
+            return Flux.from(decodeMono(contentType, byteBufFlux, typeToken));
+        }
+
+        @Override
+        public <T> Publisher<ByteBuf> encode(String contentType, Publisher<T> data, TypeToken<T> typeToken) {
+            return Flux.from(data).map(value -> Unpooled.wrappedBuffer(value.toString().getBytes(Charsets.UTF_8)));
+        }
+
+    }
+
+}
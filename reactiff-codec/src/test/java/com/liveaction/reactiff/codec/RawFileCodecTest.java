@@ -0,0 +1,202 @@
+package com.liveaction.reactiff.codec;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
+import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.test.StepVerifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class RawFileCodecTest {
+
+    private static final TypeToken<Path> PATH = TypeToken.of(Path.class);
+    private static final TypeToken<File> FILE = TypeToken.of(File.class);
+
+    private final RawFileCodec tested = new RawFileCodec();
+    private final List<ByteBuf> received = new CopyOnWriteArrayList<>();
+
+    private ByteBuf heap(String content) {
+        ByteBuf byteBuf = Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+        received.add(byteBuf);
+        return byteBuf;
+    }
+
+    private ByteBuf direct(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuf byteBuf = Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+        received.add(byteBuf);
+        return byteBuf;
+    }
+
+    /**
+     * Like the request body, each buffer is released as soon as onNext returns, and only requested buffers are emitted.
+     */
+    private static Flux<ByteBuf> body(ByteBuf... buffers) {
+        return Flux.from(subscriber -> subscriber.onSubscribe(new Subscription() {
+            private int index;
+            private long requested;
+            private boolean emitting;
+
+            @Override
+            public void request(long n) {
+                requested = Operators.addCap(requested, n);
+                if (emitting) {
+                    return;
+                }
+                emitting = true;
+                while (requested > 0 && index < buffers.length) {
+                    requested--;
+                    ByteBuf byteBuf = buffers[index++];
+                    subscriber.onNext(byteBuf);
+                    byteBuf.release();
+                }
+                emitting = false;
+                if (index == buffers.length) {
+                    index++;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                index = buffers.length + 1;
+            }
+        }));
+    }
+
+    /**
+     * The upload files of the temporary directory.
+     */
+    private static Set<Path> uploads() {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("reactiff-upload"))
+                    .collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void shouldWriteBodyIntoFileOnSubscription() throws IOException {
+        Set<Path> before = uploads();
+        Mono<Path> upload = tested.decodeMono("application/octet-stream", body(heap("test "), direct("file")), PATH);
+        Assertions.assertThat(uploads()).isEqualTo(before);
+
+        Path path = upload.block();
+        try {
+            Assertions.assertThat(before).doesNotContain(path);
+            Assertions.assertThat(path).hasContent("test file");
+            Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void shouldCopyHeapBuffersIntoDirectOnes() throws IOException {
+        String content = Strings.repeat("0123456789", 10_000);
+        ByteBuf composite = Unpooled.wrappedBuffer(heap(content.substring(0, 50_000)), heap(content.substring(50_000)));
+
+        File file = tested.decodeMono("application/octet-stream", body(composite), FILE).block();
+        try {
+            Assertions.assertThat(file).hasContent(content);
+            Assertions.assertThat(composite.refCnt()).isZero();
+            Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void shouldDeleteFileOnUpstreamError() {
+        Set<Path> before = uploads();
+
+        StepVerifier.create(tested.decodeMono("application/octet-stream",
+                        body(heap("test "), direct("file")).concatWith(Mono.error(new IllegalStateException("body failure"))), PATH))
+                .expectErrorMessage("body failure")
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertThat(uploads()).isEqualTo(before);
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldDeleteFileOnCancel() throws InterruptedException {
+        Set<Path> before = uploads();
+        AtomicInteger emitted = new AtomicInteger();
+
+        Disposable subscription = tested.decodeMono("application/octet-stream",
+                        body(heap("test "), direct("file")).doOnNext(byteBuf -> emitted.incrementAndGet()).concatWith(Flux.never()), PATH)
+                .subscribe();
+        await(() -> emitted.get() == 2 && !Sets.difference(uploads(), before).isEmpty());
+        subscription.dispose();
+
+        await(() -> uploads().equals(before));
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldRequestNextBufferOnceWritten() throws IOException {
+        Set<Path> before = uploads();
+        String chunk = Strings.repeat("0123456789", 10_000);
+        AtomicInteger emitted = new AtomicInteger();
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        // the size of the buffers emitted but not written yet, when the next buffer is requested
+        List<Long> unwrittenWhenRequested = new CopyOnWriteArrayList<>();
+
+        ByteBuf[] buffers = new ByteBuf[10];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = heap(chunk);
+        }
+
+        Flux<ByteBuf> body = body(buffers)
+                .doOnRequest(n -> {
+                    requests.add(n);
+                    long written = Sets.difference(uploads(), before).stream()
+                            .mapToLong(file -> file.toFile().length())
+                            .sum();
+                    unwrittenWhenRequested.add((long) emitted.get() * chunk.length() - written);
+                })
+                .doOnNext(byteBuf -> emitted.incrementAndGet());
+        Path path = tested.decodeMono("application/octet-stream", body, PATH).block();
+        try {
+            Assertions.assertThat(requests).hasSizeGreaterThanOrEqualTo(10).containsOnly(1L);
+            Assertions.assertThat(unwrittenWhenRequested).containsOnly(0L);
+            Assertions.assertThat(path.toFile()).hasSize(10L * chunk.length());
+            Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.liveaction.reactiff.codec;
+
+import com.google.common.base.Strings;
+import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+public class TextPlainCodecTest {
+
+    private static final TypeToken<String> STRING = TypeToken.of(String.class);
+
+    @Test
+    public void shouldSendOneBufferPerElementByDefault() {
+        TextPlainCodec tested = new TextPlainCodec();
+
+        StepVerifier.create(Flux.from(tested.encode("text/plain", Flux.just("a", "b", "c"), STRING))
+                        .map(TextPlainCodecTest::release))
+                .expectNext("a", "b", "c")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldBatchFluxElements() {
+        TextPlainCodec tested = new TextPlainCodec()
+                .withBufferBatching(BufferBatching.of(1024, Duration.ofMillis(100)));
+        Flux<String> toEncode = Flux.range(0, 1000)
+                .map(i -> Strings.padStart(String.valueOf(i), 10, '0'));
+
+        StepVerifier.create(Flux.from(tested.encode("text/plain", toEncode, STRING))
+                        .map(TextPlainCodecTest::release)
+                        .collectList())
+                .assertNext(batches -> {
+                    Assertions.assertThat(batches.size()).isLessThan(100);
+                    Assertions.assertThat(batches.subList(0, batches.size() - 1)).allMatch(batch -> batch.length() >= 1024);
+                    Assertions.assertThat(String.join("", batches)).isEqualTo(String.join("", toEncode.collectList().block()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldNotDelayBatchedSlowStream() {
+        TextPlainCodec tested = new TextPlainCodec()
+                .withBufferBatching(BufferBatching.of(1024, Duration.ofMillis(150)));
+
+        StepVerifier.withVirtualTime(() -> Flux.from(tested.encode("text/plain", Flux.just("a", "b").delayElements(Duration.ofMillis(1000)), STRING))
+                        .map(TextPlainCodecTest::release))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(1000))
+                .thenAwait(Duration.ofMillis(150))
+                .expectNext("a")
+                .thenAwait(Duration.ofMillis(1000))
+                .expectNext("b")
+                .verifyComplete();
+    }
+
+    private static String release(ByteBuf byteBuf) {
+        String value = byteBuf.toString(StandardCharsets.UTF_8);
+        byteBuf.release();
+        return value;
+    }
+
+}
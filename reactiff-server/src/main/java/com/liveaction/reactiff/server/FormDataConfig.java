@@ -0,0 +1,46 @@
+package com.liveaction.reactiff.server;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Limits of the application/x-www-form-urlencoded requests read with
+ * {@link com.liveaction.reactiff.api.server.Request#getFormData()}. Requests exceeding a limit are answered with a 413
+ * status.
+ */
+public final class FormDataConfig {
+
+    public static final FormDataConfig DEFAULT = new FormDataConfig(1024, -1);
+
+    private final int maxFields;
+    private final long maxSize;
+
+    private FormDataConfig(int maxFields, long maxSize) {
+        this.maxFields = maxFields;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Maximum number of fields, -1 for no limit. 1024 by default.
+     */
+    public FormDataConfig withMaxFields(int maxFields) {
+        Preconditions.checkArgument(maxFields >= -1, "maxFields must be -1 or positive");
+        return new FormDataConfig(maxFields, maxSize);
+    }
+
+    /**
+     * Maximum size of the request body, -1 for no limit, the default.
+     */
+    public FormDataConfig withMaxSize(long maxSize) {
+        Preconditions.checkArgument(maxSize >= -1, "maxSize must be -1 or positive");
+        return new FormDataConfig(maxFields, maxSize);
+    }
+
+    public int maxFields() {
+        return maxFields;
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.liveaction.reactiff.server;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage and limits of multipart requests. The parts read with {@link com.liveaction.reactiff.api.server.Request#parts()}
+ * are kept in memory up to a threshold, then spilled to disk. Requests exceeding a limit are answered with a 413 status.
+ */
+public final class MultipartConfig {
+
+    public static final MultipartConfig DEFAULT = new MultipartConfig(100 * 1024, null, -1, -1, 16 * 1024, 64 * 1024);
+
+    private final int memoryThreshold;
+    private final Path storageDirectory;
+    private final long maxPartSize;
+    private final long maxTotalSize;
+    private final int readBufferSize;
+    private final long maxFormFieldSize;
+
+    private MultipartConfig(int memoryThreshold, Path storageDirectory, long maxPartSize, long maxTotalSize, int readBufferSize,
+                            long maxFormFieldSize) {
+        this.memoryThreshold = memoryThreshold;
+        this.storageDirectory = storageDirectory;
+        this.maxPartSize = maxPartSize;
+        this.maxTotalSize = maxTotalSize;
+        this.readBufferSize = readBufferSize;
+        this.maxFormFieldSize = maxFormFieldSize;
+    }
+
+    /**
+     * Size above which the body of a part is spilled to disk. 100 KB by default.
+     */
+    public MultipartConfig withMemoryThreshold(int memoryThreshold) {
+        Preconditions.checkArgument(memoryThreshold >= 0, "memoryThreshold must not be negative");
+        return new MultipartConfig(memoryThreshold, storageDirectory, maxPartSize, maxTotalSize, readBufferSize, maxFormFieldSize);
+    }
+
+    /**
+     * Directory spilled parts are stored in. The system temporary directory by default.
+     */
+    public MultipartConfig withStorageDirectory(Path storageDirectory) {
+        return new MultipartConfig(memoryThreshold, storageDirectory, maxPartSize, maxTotalSize, readBufferSize, maxFormFieldSize);
+    }
+
+    /**
+     * Maximum size of the body of a part, -1 for no limit, the default.
+     */
+    public MultipartConfig withMaxPartSize(long maxPartSize) {
+        Preconditions.checkArgument(maxPartSize >= -1, "maxPartSize must be -1 or positive");
+        return new MultipartConfig(memoryThreshold, storageDirectory, maxPartSize, maxTotalSize, readBufferSize, maxFormFieldSize);
+    }
+
+    /**
+     * Maximum size of the whole request body, -1 for no limit, the default.
+     */
+    public MultipartConfig withMaxTotalSize(long maxTotalSize) {
+        Preconditions.checkArgument(maxTotalSize >= -1, "maxTotalSize must be -1 or positive");
+        return new MultipartConfig(memoryThreshold, storageDirectory, maxPartSize, maxTotalSize, readBufferSize, maxFormFieldSize);
+    }
+
+    /**
+     * Size of the buffers the content of a stored part is read in. 16 KB by default.
+     */
+    public MultipartConfig withReadBufferSize(int readBufferSize) {
+        Preconditions.checkArgument(readBufferSize > 0, "readBufferSize must be positive");
+        return new MultipartConfig(memoryThreshold, storageDirectory, maxPartSize, maxTotalSize, readBufferSize, maxFormFieldSize);
+    }
+
+    /**
+     * Maximum size of the value of a form field read with {@link com.liveaction.reactiff.api.server.Request#streamParts()},
+     * which is held in memory until fully received. -1 for no limit, 64 KB by default.
+     */
+    public MultipartConfig withMaxFormFieldSize(long maxFormFieldSize) {
+        Preconditions.checkArgument(maxFormFieldSize >= -1, "maxFormFieldSize must be -1 or positive");
+        return new MultipartConfig(memoryThreshold, storageDirectory, maxPartSize, maxTotalSize, readBufferSize, maxFormFieldSize);
+    }
+
+    public int memoryThreshold() {
+        return memoryThreshold;
+    }
+
+    public Optional<Path> storageDirectory() {
+        return Optional.ofNullable(storageDirectory);
+    }
+
+    public long maxPartSize() {
+        return maxPartSize;
+    }
+
+    public long maxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public int readBufferSize() {
+        return readBufferSize;
+    }
+
+    public long maxFormFieldSize() {
+        return maxFormFieldSize;
+    }
+
+}
@@ -12,7 +12,9 @@ import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.server.HttpServer;
 
 import java.io.Closeable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
@@ -75,6 +77,15 @@ public interface ReactiveHttpServer extends Closeable {
         Builder configure(Function<HttpServer, HttpServer> configuration);
         Builder originHeader(String originHeader);
 
+        Builder multipart(MultipartConfig multipartConfig);
+
+        Builder formData(FormDataConfig formDataConfig);
+
+        /**
+         * Locales {@link com.liveaction.reactiff.api.server.Request#getLocale()} is resolved against, all the available locales by default.
+         */
+        Builder supportedLocales(Collection<Locale> supportedLocales);
+
         ReactiveHttpServer build();
 
     }
@@ -7,6 +7,8 @@ import com.liveaction.reactiff.api.server.ReactiveHandler;
 import com.liveaction.reactiff.codec.CodecManagerImpl;
 import com.liveaction.reactiff.server.context.ExecutionContextService;
 import com.liveaction.reactiff.server.internal.ReactiveHttpServerImpl;
+import com.liveaction.reactiff.server.internal.RequestSettings;
+import com.liveaction.reactiff.server.internal.utils.LocaleResolver;
 import com.liveaction.reactiff.server.param.converter.ParamTypeConverter;
 import reactor.core.scheduler.Scheduler;
 import reactor.netty.channel.ChannelMetricsRecorder;
@@ -16,6 +18,7 @@ import reactor.util.annotation.Nullable;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executor;
@@ -58,6 +61,9 @@ final class ReactiveHttpServerBuilder implements ReactiveHttpServer.Builder {
     @Nullable
     private CodecManager codecManager;
     private Optional<String> originHeader = Optional.empty();
+    private MultipartConfig multipartConfig = MultipartConfig.DEFAULT;
+    private FormDataConfig formDataConfig = FormDataConfig.DEFAULT;
+    private LocaleResolver localeResolver = LocaleResolver.DEFAULT;
 
     @Override
     public ReactiveHttpServer.Builder host(String host) {
@@ -202,13 +208,32 @@ final class ReactiveHttpServerBuilder implements ReactiveHttpServer.Builder {
         return this;
     }
 
+    @Override
+    public ReactiveHttpServer.Builder multipart(MultipartConfig multipartConfig) {
+        this.multipartConfig = multipartConfig;
+        return this;
+    }
+
+    @Override
+    public ReactiveHttpServer.Builder formData(FormDataConfig formDataConfig) {
+        this.formDataConfig = formDataConfig;
+        return this;
+    }
+
+    @Override
+    public ReactiveHttpServer.Builder supportedLocales(Collection<Locale> supportedLocales) {
+        this.localeResolver = new LocaleResolver(supportedLocales);
+        return this;
+    }
+
     @Override
     public ReactiveHttpServer build() {
         if (codecManager == null) {
             codecManager = new CodecManagerImpl();
         }
         ReactiveHttpServerImpl reactiveHttpServer = new ReactiveHttpServerImpl(host, port, protocols, codecManager, ioExecutor, workScheduler,
-                channelMetricsRecorder, wiretap, compress, displayRoutes, writeErrorStacktrace, configuration, originHeader);
+                channelMetricsRecorder, wiretap, displayRoutes, writeErrorStacktrace, configuration, originHeader,
+                new RequestSettings(compress, multipartConfig, formDataConfig, localeResolver));
         filters.forEach(reactiveHttpServer::addReactiveFilter);
         handlers.forEach(reactiveHttpServer::addReactiveHandler);
         converters.forEach(reactiveHttpServer::addParamTypeConverter);
@@ -1,6 +1,7 @@
 package com.liveaction.reactiff.server.internal;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
 import com.liveaction.reactiff.api.codec.CodecManager;
 import com.liveaction.reactiff.api.server.FilterChain;
 import com.liveaction.reactiff.api.server.ReactiveFilter;
@@ -34,7 +35,8 @@ public final class ReactiveHttpServerImpl implements ReactiveHttpServer {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveHttpServerImpl.class);
     private static final Comparator<ReactiveFilter> FILTER_COMPARATOR = Comparator.reverseOrder();
 
-    private final Set<ReactiveFilter> reactiveFilters = Collections.synchronizedSortedSet(new TreeSet<>(FILTER_COMPARATOR));
+    // copy on write, chains are built from it when routes are registered
+    private volatile ImmutableSortedSet<ReactiveFilter> reactiveFilters = ImmutableSortedSet.orderedBy(FILTER_COMPARATOR).build();
     private final String host;
     private final int port;
     private final Collection<HttpProtocol> protocols;
@@ -57,11 +59,11 @@ public final class ReactiveHttpServerImpl implements ReactiveHttpServer {
                                   Scheduler workScheduler,
                                   ChannelMetricsRecorder channelMetricsRecorder,
                                   boolean wiretap,
-                                  boolean compress,
                                   boolean displayRoutes,
                                   boolean writeErrorStacktrace,
                                   Function<HttpServer, HttpServer> configuration,
-                                  Optional<String> originHeader) {
+                                  Optional<String> originHeader,
+                                  RequestSettings requestSettings) {
         this.host = host;
         this.port = port;
         this.protocols = protocols;
@@ -74,8 +76,9 @@ public final class ReactiveHttpServerImpl implements ReactiveHttpServer {
                 executionContextServiceManager,
                 displayRoutes,
                 workScheduler,
-                originHeader);
-        this.httpServer = configuration.apply(createServer(wiretap, compress, channelMetricsRecorder));
+                originHeader,
+                requestSettings);
+        this.httpServer = configuration.apply(createServer(wiretap, requestSettings.compress(), channelMetricsRecorder));
     }
 
     @Override
@@ -117,13 +120,24 @@ public final class ReactiveHttpServerImpl implements ReactiveHttpServer {
 
     @Override
     public void addReactiveFilter(ReactiveFilter reactiveFilter) {
-        this.reactiveFilters.add(reactiveFilter);
+        synchronized (this) {
+            this.reactiveFilters = ImmutableSortedSet.orderedBy(FILTER_COMPARATOR)
+                    .addAll(reactiveFilters)
+                    .add(reactiveFilter)
+                    .build();
+        }
+        router.updateRoutes();
         LOGGER.debug("ReactiveFilter {}(rank={}) added", reactiveFilter, reactiveFilter.filterRank());
     }
 
     @Override
     public void removeReactiveFilter(ReactiveFilter reactiveFilter) {
-        this.reactiveFilters.remove(reactiveFilter);
+        synchronized (this) {
+            this.reactiveFilters = reactiveFilters.stream()
+                    .filter(filter -> FILTER_COMPARATOR.compare(filter, reactiveFilter) != 0)
+                    .collect(ImmutableSortedSet.toImmutableSortedSet(FILTER_COMPARATOR));
+        }
+        router.updateRoutes();
         LOGGER.debug("ReactiveFilter {}(rank={}) removed", reactiveFilter, reactiveFilter.filterRank());
     }
 
@@ -188,10 +202,10 @@ public final class ReactiveHttpServerImpl implements ReactiveHttpServer {
         return httpServer.handle(router);
     }
 
-    private FilterChain chain(FilterChain inputChain) {
+    private FilterChain chain(FilterChain inputChain, Optional<Route> route) {
         FilterChain filterChain = inputChain;
         for (ReactiveFilter element : reactiveFilters) {
-            filterChain = FilterUtils.chain(element, filterChain);
+            filterChain = FilterUtils.chain(element, filterChain, route);
         }
         return filterChain;
     }
@@ -9,7 +9,15 @@ import com.liveaction.reactiff.api.server.HttpMethod;
 import com.liveaction.reactiff.api.server.Request;
 import com.liveaction.reactiff.api.server.multipart.Part;
 import com.liveaction.reactiff.api.server.route.Route;
+import com.liveaction.reactiff.server.FormDataConfig;
+import com.liveaction.reactiff.server.MultipartConfig;
 import com.liveaction.reactiff.server.internal.multipart.FluxSinkMultipartListener;
+import com.liveaction.reactiff.server.internal.multipart.PartStorageFactory;
+import com.liveaction.reactiff.server.internal.multipart.StreamingParts;
+import com.liveaction.reactiff.server.internal.utils.FormDataDecoder;
+import com.liveaction.reactiff.server.internal.utils.LocaleResolver;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.util.CharsetUtil;
@@ -34,17 +42,40 @@ public final class RequestImpl implements Request {
 
     private final HttpServerRequest httpServerRequest;
     private final CodecManager codecManager;
-    private final ImmutableMap<String, ImmutableList<String>> parameters;
     private final HttpMethod httpMethod;
     private final Route matchingRoute;
+    private final MultipartConfig multipartConfig;
+    private final FormDataConfig formDataConfig;
+    private final LocaleResolver localeResolver;
+
+    // lazily computed from the request uri, a request is not meant to be shared between threads
+    private QueryStringDecoder queryStringDecoder;
+    private ImmutableMap<String, ImmutableList<String>> parameters;
+    private String path;
+    private String query;
+    private String uri;
+    private LocaleResolver.Resolution localeResolution;
 
     public RequestImpl(HttpServerRequest httpServerRequest, CodecManager codecManager, Optional<Route> matchingRoute) {
+        this(httpServerRequest, codecManager, matchingRoute, RequestSettings.DEFAULT);
+    }
+
+    public RequestImpl(HttpServerRequest httpServerRequest, CodecManager codecManager, Optional<Route> matchingRoute,
+                       RequestSettings requestSettings) {
         this.httpServerRequest = httpServerRequest;
         this.codecManager = codecManager;
-        QueryStringDecoder decoder = new QueryStringDecoder(httpServerRequest.uri());
-        parameters = ImmutableMap.copyOf(Maps.transformValues(decoder.parameters(), ImmutableList::copyOf));
         httpMethod = HttpMethod.valueOf(httpServerRequest.method().name());
         this.matchingRoute = matchingRoute.orElse(null);
+        this.multipartConfig = requestSettings.multipartConfig();
+        this.formDataConfig = requestSettings.formDataConfig();
+        this.localeResolver = requestSettings.localeResolver();
+    }
+
+    private QueryStringDecoder queryStringDecoder() {
+        if (queryStringDecoder == null) {
+            queryStringDecoder = new QueryStringDecoder(httpServerRequest.uri());
+        }
+        return queryStringDecoder;
     }
 
     @Override
@@ -59,7 +90,7 @@ public final class RequestImpl implements Request {
 
     @Override
     public String uriParam(String name) {
-        List<String> values = parameters.get(name);
+        List<String> values = queryStringDecoder().parameters().get(name);
         if (values != null && !values.isEmpty()) {
             return values.get(0);
         } else {
@@ -69,7 +100,7 @@ public final class RequestImpl implements Request {
 
     @Override
     public ImmutableList<String> uriParams(String name) {
-        List<String> values = parameters.get(name);
+        List<String> values = queryStringDecoder().parameters().get(name);
         if (values != null) {
             return ImmutableList.copyOf(values);
         } else {
@@ -84,17 +115,24 @@ public final class RequestImpl implements Request {
         if (!MultipartUtils.isMultipart(contentType)) {
             return Mono.empty();
         }
+        if (multipartConfig.maxTotalSize() >= 0 && contentLength > multipartConfig.maxTotalSize()) {
+            return Mono.error(tooLarge());
+        }
         MultipartContext context = new MultipartContext(contentType,
                 contentLength,
                 httpServerRequest.requestHeaders().get(HttpHeaderNames.CONTENT_ENCODING));
+        PartStorageFactory storageFactory = new PartStorageFactory(multipartConfig.storageDirectory().orElse(null),
+                multipartConfig.memoryThreshold(), multipartConfig.maxPartSize());
         return Flux.<Part>create(sink -> {
-            FluxSinkMultipartListener listener = new FluxSinkMultipartListener(sink, context);
-            NioMultipartParser parser = Multipart.multipart(context).forNIO(listener);
-            httpServerRequest.receive().asByteArray().subscribe(resultBytes -> {
+            FluxSinkMultipartListener listener = new FluxSinkMultipartListener(sink, context, multipartConfig.readBufferSize());
+            NioMultipartParser parser = Multipart.multipart(context)
+                    .usePartBodyStreamStorageFactory(storageFactory)
+                    .forNIO(listener);
+            sink.onDispose(multipartBody().subscribe(byteBuf -> {
                 try {
-                    parser.write(resultBytes);
+                    byteBuf.readBytes(parser, byteBuf.readableBytes());
                 }
-                catch (IOException ex) {
+                catch (IOException | RuntimeException ex) {
                     listener.onError("Exception thrown providing input to the parser", ex);
                 }
             }, ex -> {
@@ -112,10 +150,50 @@ public final class RequestImpl implements Request {
                 catch (IOException ex) {
                     listener.onError("Exception thrown while closing the parser", ex);
                 }
-            });
+            }));
         })
                 .map(part -> Maps.immutableEntry(part.name(), part))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
+                // the parts of a failed request are never handed over, nor read
+                .doOnError(throwable -> storageFactory.dispose())
+                .doOnCancel(storageFactory::dispose);
+    }
+
+    @Override
+    public Flux<Part> streamParts() {
+        String contentType = httpServerRequest.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+        if (!MultipartUtils.isMultipart(contentType)) {
+            return Flux.empty();
+        }
+        if (multipartConfig.maxTotalSize() >= 0 && getContentLength(httpServerRequest.requestHeaders()) > multipartConfig.maxTotalSize()) {
+            return Flux.error(tooLarge());
+        }
+        return StreamingParts.parse(multipartBody(), contentType, multipartConfig.maxPartSize(), multipartConfig.maxFormFieldSize());
+    }
+
+    /**
+     * The request body, failing as soon as it exceeds the max size of a multipart request.
+     */
+    private Flux<ByteBuf> multipartBody() {
+        long maxTotalSize = multipartConfig.maxTotalSize();
+        if (maxTotalSize < 0) {
+            return httpServerRequest.receive();
+        }
+        return Flux.defer(() -> {
+            long[] received = {0};
+            return httpServerRequest.receive().handle((byteBuf, sink) -> {
+                received[0] += byteBuf.readableBytes();
+                if (received[0] > maxTotalSize) {
+                    sink.error(tooLarge());
+                } else {
+                    sink.next(byteBuf);
+                }
+            });
+        });
+    }
+
+    private TooLongFrameException tooLarge() {
+        return new TooLongFrameException("Multipart request exceeds " + multipartConfig.maxTotalSize() + " bytes");
     }
 
     private int getContentLength(HttpHeaders headers) {
@@ -129,6 +207,9 @@ public final class RequestImpl implements Request {
 
     @Override
     public ImmutableMap<String, ImmutableList<String>> uriParams() {
+        if (parameters == null) {
+            parameters = ImmutableMap.copyOf(Maps.transformValues(queryStringDecoder().parameters(), ImmutableList::copyOf));
+        }
         return parameters;
     }
 
@@ -189,17 +270,26 @@ public final class RequestImpl implements Request {
 
     @Override
     public String path() {
-        return httpServerRequest.path();
+        if (path == null) {
+            path = httpServerRequest.path();
+        }
+        return path;
     }
 
     @Override
     public String query() {
-        return new QueryStringDecoder(httpServerRequest.uri()).rawQuery();
+        if (query == null) {
+            query = queryStringDecoder().rawQuery();
+        }
+        return query;
     }
 
     @Override
     public String uri() {
-        return new QueryStringDecoder(httpServerRequest.uri()).rawPath();
+        if (uri == null) {
+            uri = queryStringDecoder().rawPath();
+        }
+        return uri;
     }
 
     @Override
@@ -214,46 +304,46 @@ public final class RequestImpl implements Request {
 
     @Override
     public Locale getLocale() {
-        ImmutableList<Locale.LanguageRange> languageRanges = getLanguageRanges();
-        List<Locale> locales = Locale.filter(languageRanges, ImmutableList.copyOf(Locale.getAvailableLocales()));
-        if (locales.isEmpty()) {
-            return Locale.getDefault();
-        } else {
-            return locales.get(0);
-        }
+        return localeResolution().locale().orElseGet(Locale::getDefault);
     }
 
     @Override
     public ImmutableList<Locale.LanguageRange> getLanguageRanges() {
-        return Optional.ofNullable(header(HttpHeaderNames.ACCEPT_LANGUAGE))
-                .map(Locale.LanguageRange::parse)
-                .map(ImmutableList::copyOf)
-                .orElseGet(ImmutableList::of);
+        return localeResolution().languageRanges();
+    }
+
+    private LocaleResolver.Resolution localeResolution() {
+        if (localeResolution == null) {
+            localeResolution = localeResolver.resolve(header(HttpHeaderNames.ACCEPT_LANGUAGE));
+        }
+        return localeResolution;
     }
 
     @Override
     public Mono<ImmutableMap<String, ImmutableList<String>>> getFormData() {
-        // Until this gets fixed in https://github.com/reactor/reactor-netty/pull/1411
-        String contentType = httpServerRequest.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE);
-        if(!method().equals(HttpMethod.POST) || !contentType.toLowerCase().contains("application/x-www-form-urlencoded")) {
+        if (!isFormData()) {
             return Mono.just(ImmutableMap.of());
         }
-        final Charset charset = HttpUtil.getCharset(contentType, CharsetUtil.UTF_8);
-        return httpServerRequest.receive()
-                .aggregate()
-                .asByteArray()
-                .map(bytes -> {
-                    try {
-                        final Map<String, List<String>> parameters = new QueryStringDecoder(new String(bytes, charset), false).parameters();
-                        final ImmutableMap.Builder<String, ImmutableList<String>> builder = ImmutableMap.builder();
-                        for (Map.Entry<String, List<String>> entry : parameters.entrySet()) {
-                            builder.put(entry.getKey(), ImmutableList.copyOf(entry.getValue()));
-                        }
-                        return builder.build();
-                    } catch (Exception e) {
-                        throw e;
-                    }
-                });
+        return FormDataDecoder.collect(streamFormData());
+    }
+
+    @Override
+    public Flux<Map.Entry<String, String>> streamFormData() {
+        // Until this gets fixed in https://github.com/reactor/reactor-netty/pull/1411
+        if (!isFormData()) {
+            return Flux.empty();
+        }
+        if (formDataConfig.maxSize() >= 0 && getContentLength(httpServerRequest.requestHeaders()) > formDataConfig.maxSize()) {
+            return Flux.error(new TooLongFrameException("Form data exceeds " + formDataConfig.maxSize() + " bytes"));
+        }
+        Charset charset = HttpUtil.getCharset(httpServerRequest.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE), CharsetUtil.UTF_8);
+        return FormDataDecoder.decode(httpServerRequest.receive(), charset, formDataConfig.maxFields(), formDataConfig.maxSize());
+    }
+
+    private boolean isFormData() {
+        String contentType = httpServerRequest.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+        return method().equals(HttpMethod.POST) && contentType != null
+                && contentType.toLowerCase().contains("application/x-www-form-urlencoded");
     }
 
 }
@@ -0,0 +1,45 @@
+package com.liveaction.reactiff.server.internal;
+
+import com.liveaction.reactiff.server.FormDataConfig;
+import com.liveaction.reactiff.server.MultipartConfig;
+import com.liveaction.reactiff.server.internal.utils.LocaleResolver;
+
+/**
+ * Settings of the server the requests are read and answered with.
+ */
+public final class RequestSettings {
+
+    public static final RequestSettings DEFAULT = new RequestSettings(false, MultipartConfig.DEFAULT, FormDataConfig.DEFAULT, LocaleResolver.DEFAULT);
+
+    private final boolean compress;
+    private final MultipartConfig multipartConfig;
+    private final FormDataConfig formDataConfig;
+    private final LocaleResolver localeResolver;
+
+    public RequestSettings(boolean compress, MultipartConfig multipartConfig, FormDataConfig formDataConfig, LocaleResolver localeResolver) {
+        this.compress = compress;
+        this.multipartConfig = multipartConfig;
+        this.formDataConfig = formDataConfig;
+        this.localeResolver = localeResolver;
+    }
+
+    /**
+     * Whether the responses are compressed for the clients accepting it.
+     */
+    public boolean compress() {
+        return compress;
+    }
+
+    public MultipartConfig multipartConfig() {
+        return multipartConfig;
+    }
+
+    public FormDataConfig formDataConfig() {
+        return formDataConfig;
+    }
+
+    public LocaleResolver localeResolver() {
+        return localeResolver;
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.liveaction.reactiff.server.internal;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -11,19 +12,21 @@ import com.liveaction.reactiff.api.server.Result;
 import com.liveaction.reactiff.api.server.route.Route;
 import com.liveaction.reactiff.server.context.ExecutionContextService;
 import com.liveaction.reactiff.server.internal.param.ParamConverter;
+import com.liveaction.reactiff.server.internal.routing.RoutingTable;
 import com.liveaction.reactiff.server.internal.support.HandlerSupportFunction;
 import com.liveaction.reactiff.server.internal.support.RequestMappingSupport;
 import com.liveaction.reactiff.server.internal.support.WsMappingSupport;
+import com.liveaction.reactiff.server.internal.template.Template;
 import com.liveaction.reactiff.server.internal.template.TemplateEngineImpl;
 import com.liveaction.reactiff.server.internal.utils.FilterUtils;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
-import reactor.netty.http.server.HttpServerRoutes;
 
 import java.lang.annotation.Annotation;
 import java.util.Comparator;
@@ -36,7 +39,6 @@ import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static com.liveaction.reactiff.api.server.utils.FormatUtils.formatRoutes;
-import static java.util.stream.Collectors.toList;
 
 public final class Router implements BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> {
 
@@ -54,24 +56,30 @@ public final class Router implements BiFunction<HttpServerRequest, HttpServerRes
     private final Set<ReactiveHandler> reactiveHandlers = new ConcurrentSkipListSet<>();
 
     private final CodecManager codecManager;
-    private final Function<FilterChain, FilterChain> filterFunction;
+    private final BiFunction<FilterChain, Optional<Route>, FilterChain> filterFunction;
     private final RequestMappingSupport requestMappingSupport;
-    private HttpServerRoutes httpServerRoutes = HttpServerRoutes.newRoutes();
+    private volatile RoutingTable routingTable = new RoutingTable();
+    private volatile FilterChain notFoundChain;
+    private volatile ImmutableList<Route> routes = ImmutableList.of();
+    // the not found page with the routes already rendered
+    private volatile Template notFoundTemplate;
 
     private final boolean writeErrorStacktrace;
     private final boolean displayRoutes;
+    private final RequestSettings requestSettings;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Router.class);
 
 
     public Router(CodecManager codecManager,
                   ParamConverter paramConverter,
-                  Function<FilterChain, FilterChain> filterFunction,
+                  BiFunction<FilterChain, Optional<Route>, FilterChain> filterFunction,
                   boolean writeErrorStacktrace,
                   ExecutionContextService executionContextService,
                   boolean displayRoutes,
                   Scheduler workScheduler,
-                  Optional<String> originHeader) {
+                  Optional<String> originHeader,
+                  RequestSettings requestSettings) {
         this.codecManager = codecManager;
         this.filterFunction = filterFunction;
         this.requestMappingSupport = new RequestMappingSupport(codecManager,
@@ -80,13 +88,17 @@ public final class Router implements BiFunction<HttpServerRequest, HttpServerRes
                 writeErrorStacktrace,
                 executionContextService,
                 workScheduler,
-                originHeader);
+                originHeader,
+                requestSettings);
         this.handlerSupportFunctions = ImmutableSet.of(
                 requestMappingSupport,
                 new WsMappingSupport(filterFunction, codecManager, workScheduler)
         );
         this.writeErrorStacktrace = writeErrorStacktrace;
         this.displayRoutes = displayRoutes;
+        this.notFoundTemplate = notFoundTemplate(routes);
+        this.requestSettings = requestSettings;
+        this.notFoundChain = filterFunction.apply(this::notFound, Optional.empty());
     }
 
     public void addReactiveHander(ReactiveHandler reactiveHandler) {
@@ -112,22 +124,39 @@ public final class Router implements BiFunction<HttpServerRequest, HttpServerRes
 
     @Override
     public Publisher<Void> apply(HttpServerRequest request, HttpServerResponse response) {
-        return httpServerRoutes.apply(request, response);
+        try {
+            RoutingTable.Match match = routingTable.match(request.method(), request.uri());
+            if (match == null) {
+                return FilterUtils.applyFilters(request, response, codecManager, notFoundChain, Optional.empty(), writeErrorStacktrace, requestSettings);
+            }
+            request.paramsResolver(uri -> match.params());
+            return match.handler().apply(request, response);
+        } catch (Throwable t) {
+            Exceptions.throwIfJvmFatal(t);
+            return Mono.error(t);
+        }
     }
 
-    private void updateRoutes() {
-        HttpServerRoutes httpServerRoutes = HttpServerRoutes.newRoutes();
-
-        reactiveHandlers.forEach(rh -> registerMethod(httpServerRoutes, rh));
-        httpServerRoutes.route(httpServerRequest -> true, (req, res) -> FilterUtils.applyFilters(req, res, codecManager, filterFunction, this::notFound, Optional.empty(), writeErrorStacktrace));
-        this.httpServerRoutes = httpServerRoutes;
+    /**
+     * Rebuilds the routes and their filter chains. To be called when handlers or filters change.
+     */
+    public synchronized void updateRoutes() {
+        RoutingTable routingTable = new RoutingTable();
+        reactiveHandlers.forEach(rh -> registerMethod(routingTable, rh));
+        this.routingTable = routingTable;
+        this.routes = reactiveHandlers.stream()
+                .flatMap(this::getRoutes)
+                .map(hr -> hr.route)
+                .collect(ImmutableList.toImmutableList());
+        this.notFoundTemplate = notFoundTemplate(routes);
+        this.notFoundChain = filterFunction.apply(this::notFound, Optional.empty());
     }
 
-    private void registerMethod(HttpServerRoutes httpServerRoutes, ReactiveHandler reactiveHandler) {
+    private void registerMethod(RoutingTable routingTable, ReactiveHandler reactiveHandler) {
         getRoutes(reactiveHandler)
                 .forEach(handledRoute -> {
                     LoggerFactory.getLogger(Router.class).debug("Register route {}", handledRoute.route);
-                    handledRoute.register(httpServerRoutes, reactiveHandler);
+                    handledRoute.register(routingTable, reactiveHandler);
                 });
     }
 
@@ -152,23 +181,21 @@ public final class Router implements BiFunction<HttpServerRequest, HttpServerRes
                 );
     }
 
+    private Template notFoundTemplate(List<Route> routes) {
+        return TEMPLATE_ENGINE.template(NOT_FOUND_TEMPLATE)
+                .bind(ImmutableMap.of("routes", displayRoutes ? formatRoutes(routes) : ""));
+    }
+
     private Mono<Result> notFound(Request request) {
-        List<Route> routes = routes();
-        String routesStr = displayRoutes ? formatRoutes(routes) : "";
-
-        ImmutableMap<String, String> parameters = ImmutableMap.of("requestMethod", request.method().name(), "requestUri", request.uri(), "routes", routesStr);
-        return TEMPLATE_ENGINE.process(NOT_FOUND_TEMPLATE, parameters)
-                .map(page -> Result.<String>builder()
-                        .status(404, String.format("'%s' not found", request.uri()))
-                        .data(Mono.just(page), String.class)
-                        .build());
+        String page = notFoundTemplate.render(ImmutableMap.of("requestMethod", request.method().name(), "requestUri", request.uri()));
+        return Mono.just(Result.<String>builder()
+                .status(404, String.format("'%s' not found", request.uri()))
+                .data(Mono.just(page), String.class)
+                .build());
     }
 
     public List<Route> routes() {
-        return reactiveHandlers.stream()
-                .flatMap(this::getRoutes)
-                .map(hr -> hr.route)
-                .collect(toList());
+        return routes;
     }
 
     private static final class HandledRoute<T extends Annotation, R extends Route> {
@@ -180,8 +207,8 @@ public final class Router implements BiFunction<HttpServerRequest, HttpServerRes
             this.handlerSupportFunction = handlerSupportFunction;
         }
 
-        void register(HttpServerRoutes httpServerRoutes, ReactiveHandler reactiveHandler) {
-            handlerSupportFunction.register(httpServerRoutes, reactiveHandler, route);
+        void register(RoutingTable routingTable, ReactiveHandler reactiveHandler) {
+            handlerSupportFunction.register(routingTable, reactiveHandler, route);
         }
     }
 
@@ -1,5 +1,8 @@
 package com.liveaction.reactiff.server.internal.filters;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.liveaction.reactiff.api.server.FilterChain;
@@ -7,46 +10,81 @@ import com.liveaction.reactiff.api.server.HttpMethod;
 import com.liveaction.reactiff.api.server.ReactiveFilter;
 import com.liveaction.reactiff.api.server.Request;
 import com.liveaction.reactiff.api.server.Result;
+import io.netty.handler.codec.http.DefaultHttpHeadersFactory;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import reactor.core.publisher.Mono;
 
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class CorsFilter implements ReactiveFilter {
 
-    private static final String ACCESS_CONTROL_ALLOW_ORIGIN = "Access-Control-Allow-Origin";
-    private static final String ACCESS_CONTROL_EXPOSE_HEADERS = "Access-Control-Expose-Headers";
-    private static final String ACCESS_CONTROL_MAX_AGE = "Access-Control-Max-Age";
-    private static final String ACCESS_CONTROL_ALLOW_CREDENTIALS = "Access-Control-Allow-Credentials";
-    private static final String ACCESS_CONTROL_ALLOW_METHODS = "Access-Control-Allow-Methods";
-    private static final String ACCESS_CONTROL_ALLOW_HEADERS = "Access-Control-Allow-Headers";
-    private static final String ORIGIN = "Origin";
-    private static final String ACCESS_CONTROL_REQUEST_METHOD = "Access-Control-Request-Method";
     private static final ImmutableSet<String> SIMPLE_HEADERS = ImmutableSet.of("Accept", "Accept-Language", "Content-Language", "Content-Type");
-
-    private Set<String> allowedOrigins;
-    private Set<String> allowedHeaders;
-    private ImmutableSet<HttpMethod> allowedMethods;
-    private boolean allowCredentials;
-    private int maxAge;
+    private static final Result<String> PREFLIGHT_REJECTED = Result.withStatus(401, "No such method for this route");
+    private static final int CACHE_SIZE = 1024;
+
+    private final boolean anyOrigin;
+    // lower case origins
+    private final ImmutableSet<String> allowedOrigins;
+    // origins with a '*' wildcard, such as https://*.example.com
+    private final ImmutableList<Pattern> allowedOriginPatterns;
+    private final ImmutableSet<String> allowedMethods;
+    // the allowed origin header echoes the request origin, unless a single origin is allowed
+    private final boolean varyOnOrigin;
+
+    // the header values do not depend on the request, they are computed once
+    private final String allowedOriginsHeader;
+    private final String allowedHeadersHeader;
+    private final boolean allowCredentials;
+    private final HttpHeaders preflightHeaders = DefaultHttpHeadersFactory.headersFactory().withValidation(false).newHeaders();
+    private final Cache<String, Result<?>> preflightResults = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
 
     public CorsFilter(ImmutableSet<String> allowedOrigins,
                       ImmutableSet<String> allowedHeaders,
                       ImmutableSet<String> allowedMethods,
                       boolean allowCredentials,
                       int maxAge) {
-        this.allowedOrigins = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
-        this.allowedOrigins.addAll(allowedOrigins);
+        Set<String> sortedOrigins = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        sortedOrigins.addAll(allowedOrigins);
+        this.anyOrigin = sortedOrigins.contains("*");
+        this.allowedOrigins = sortedOrigins.stream()
+                .filter(origin -> !origin.contains("*"))
+                .map(origin -> origin.toLowerCase(Locale.ROOT))
+                .collect(ImmutableSet.toImmutableSet());
+        this.allowedOriginPatterns = sortedOrigins.stream()
+                .filter(origin -> origin.contains("*") && !origin.equals("*"))
+                .map(origin -> Pattern.compile(Stream.of(origin.split("\\*", -1)).map(Pattern::quote).collect(Collectors.joining("[^/]*")),
+                        Pattern.CASE_INSENSITIVE))
+                .collect(ImmutableList.toImmutableList());
+        this.allowedOriginsHeader = String.join(",", sortedOrigins);
+        this.varyOnOrigin = anyOrigin || !allowedOriginPatterns.isEmpty() || this.allowedOrigins.size() > 1;
+
+        Set<String> sortedHeaders = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        sortedHeaders.addAll(SIMPLE_HEADERS);
+        sortedHeaders.addAll(allowedHeaders);
+        this.allowedHeadersHeader = String.join(",", sortedHeaders);
+        this.allowCredentials = allowCredentials;
 
-        this.allowedHeaders = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
-        this.allowedHeaders.addAll(SIMPLE_HEADERS);
-        this.allowedHeaders.addAll(allowedHeaders);
+        ImmutableSet<HttpMethod> methods = ImmutableSet.copyOf(allowedMethods.stream().map(String::toUpperCase).map(HttpMethod::valueOf).collect(Collectors.toSet()));
+        this.allowedMethods = methods.stream().map(HttpMethod::name).collect(ImmutableSet.toImmutableSet());
 
-        this.allowedMethods = ImmutableSet.copyOf(allowedMethods.stream().map(String::toUpperCase).map(HttpMethod::valueOf).collect(Collectors.toSet()));
-        this.allowCredentials = allowCredentials;
-        this.maxAge = maxAge;
+        if (maxAge > 0) {
+            preflightHeaders.set(HttpHeaderNames.ACCESS_CONTROL_MAX_AGE, String.valueOf(maxAge));
+        }
+        preflightHeaders.set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_METHODS, String.join(",", methods.stream().map(Objects::toString).collect(Collectors.toSet())))
+                .set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_HEADERS, allowedHeadersHeader);
+        if (allowCredentials) {
+            preflightHeaders.set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        if (varyOnOrigin) {
+            preflightHeaders.set(HttpHeaderNames.VARY, HttpHeaderNames.ORIGIN);
+        }
     }
 
     @Override
@@ -57,7 +95,7 @@ public final class CorsFilter implements ReactiveFilter {
     @Override
     public Mono<Result> filter(Request request, FilterChain chain) {
         // Is CORS required?
-        String originHeader = request.header(ORIGIN);
+        String originHeader = request.header(HttpHeaderNames.ORIGIN);
 
         // If not Preflight
         if (request.method() != HttpMethod.OPTIONS) {
@@ -68,41 +106,23 @@ public final class CorsFilter implements ReactiveFilter {
     }
 
     private Mono<Result> preflight(Request request, FilterChain chain, String originHeader) {
-
-        String accessControlMethod = request.header(ACCESS_CONTROL_REQUEST_METHOD);
+        String accessControlMethod = request.header(HttpHeaderNames.ACCESS_CONTROL_REQUEST_METHOD);
         if (originHeader == null || accessControlMethod == null) {
             return chain.chain(request);
         }
-        Result.Builder resultBuilder = Result.builder();
-
-        try {
-            HttpMethod parsedMethod = HttpMethod.valueOf(accessControlMethod);
-            if (!this.allowedMethods.contains(parsedMethod)) {
-                resultBuilder.status(401, "No such method for this route");
-            } else {
-                emitValidCorsResponse(originHeader, resultBuilder);
-            }
-
-        } catch (IllegalArgumentException e) {
-            resultBuilder.status(401, "No such method for this route");
-        }
-
-        return Mono.just(resultBuilder.build());
-
-    }
-
-    private void emitValidCorsResponse(String originHeader, Result.Builder resultBuilder) {
-        resultBuilder.status(HttpResponseStatus.ACCEPTED);
-        if (this.maxAge > 0) {
-            resultBuilder.header(ACCESS_CONTROL_MAX_AGE, String.valueOf(this.maxAge));
+        // answered without going through the rest of the chain
+        if (!allowedMethods.contains(accessControlMethod)) {
+            return Mono.just(PREFLIGHT_REJECTED);
         }
-
-        resultBuilder.headers(ACCESS_CONTROL_ALLOW_ORIGIN, getAllowedOriginsHeader(originHeader))
-                .headers(ACCESS_CONTROL_ALLOW_METHODS, allowedMethods.stream().map(Objects::toString).collect(Collectors.toSet()))
-                .headers(ACCESS_CONTROL_ALLOW_HEADERS, allowedHeaders);
-        if (allowCredentials) {
-            resultBuilder.header(ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        String allowOrigin = getAllowedOriginsHeader(originHeader);
+        Result<?> result = preflightResults.getIfPresent(allowOrigin);
+        if (result == null) {
+            result = Result.builder().status(HttpResponseStatus.ACCEPTED).build()
+                    .withHeaders(headers -> headers.add(preflightHeaders)
+                            .set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN, allowOrigin));
+            preflightResults.put(allowOrigin, result);
         }
+        return Mono.just(result);
     }
 
     private Mono<Result> retrieveAndReturnResult(Request request, FilterChain chain, String originHeader) {
@@ -110,32 +130,37 @@ public final class CorsFilter implements ReactiveFilter {
 
         // Is it actually a CORS request?
         if (originHeader != null) {
-            result = result.map(r -> {
-
-                Result.Builder copy = r.copy();
-
-                copy.headers(ACCESS_CONTROL_ALLOW_ORIGIN, getAllowedOriginsHeader(originHeader));
-                if (allowCredentials) {
-                    copy.header(ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
-                }
-                if (!allowedHeaders.isEmpty()) {
-                    copy.headers(ACCESS_CONTROL_EXPOSE_HEADERS, allowedHeaders);
-                }
-                return copy.build();
-            });
-
+            String allowOrigin = getAllowedOriginsHeader(originHeader);
+            result = result.map(r -> withCorsHeaders(r, allowOrigin));
         }
 
         return result;
     }
 
-    private ImmutableSet<String> getAllowedOriginsHeader(String origin) {
-        // If wildcard is used, only return the request supplied origin
-        if (allowedOrigins.contains("*")) {
-            return ImmutableSet.of(origin);
-        } else {
-            return ImmutableSet.copyOf(allowedOrigins);
+    private Result withCorsHeaders(Result<?> result, String allowOrigin) {
+        return result.withHeaders(headers -> {
+            headers.set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN, allowOrigin);
+            if (allowCredentials && !headers.contains(HttpHeaderNames.ACCESS_CONTROL_ALLOW_CREDENTIALS)) {
+                headers.set(HttpHeaderNames.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+            }
+            headers.set(HttpHeaderNames.ACCESS_CONTROL_EXPOSE_HEADERS, allowedHeadersHeader);
+            if (varyOnOrigin && !headers.containsValue(HttpHeaderNames.VARY, HttpHeaderNames.ORIGIN, true)) {
+                headers.add(HttpHeaderNames.VARY, HttpHeaderNames.ORIGIN);
+            }
+        });
+    }
+
+    private String getAllowedOriginsHeader(String origin) {
+        // only return the request supplied origin when allowed
+        if (anyOrigin || allowedOrigins.contains(origin.toLowerCase(Locale.ROOT))) {
+            return origin;
+        }
+        for (Pattern pattern : allowedOriginPatterns) {
+            if (pattern.matcher(origin).matches()) {
+                return origin;
+            }
         }
+        return allowedOriginsHeader;
     }
 
-}
\ No newline at end of file
+}
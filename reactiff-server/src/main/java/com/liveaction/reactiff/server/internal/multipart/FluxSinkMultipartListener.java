@@ -8,6 +8,9 @@ import com.google.common.collect.Multimaps;
 import com.liveaction.reactiff.api.server.multipart.FilePart;
 import com.liveaction.reactiff.api.server.multipart.FormFieldPart;
 import com.liveaction.reactiff.api.server.multipart.Part;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.TooLongFrameException;
 import org.synchronoss.cloud.nio.multipart.MultipartContext;
 import org.synchronoss.cloud.nio.multipart.MultipartUtils;
 import org.synchronoss.cloud.nio.multipart.NioMultipartParserListener;
@@ -18,12 +21,11 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.netty.ByteBufFlux;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -40,11 +42,14 @@ public final class FluxSinkMultipartListener implements NioMultipartParserListen
 
     private final MultipartContext context;
 
+    private final int readBufferSize;
+
     private final AtomicInteger terminated = new AtomicInteger(0);
 
-    public FluxSinkMultipartListener(FluxSink<Part> sink, MultipartContext context) {
+    public FluxSinkMultipartListener(FluxSink<Part> sink, MultipartContext context, int readBufferSize) {
         this.sink = sink;
         this.context = context;
+        this.readBufferSize = readBufferSize;
     }
 
     @Override
@@ -75,38 +80,25 @@ public final class FluxSinkMultipartListener implements NioMultipartParserListen
                 @Override
                 public Mono<Void> transferTo(Path dest, Scheduler executor) {
                     return Mono.fromCallable(() -> {
-                        ReadableByteChannel input = null;
-                        FileChannel output = null;
-                        try {
-                            input = Channels.newChannel(storage.getInputStream());
-                            output = FileChannel.open(dest, FILE_CHANNEL_OPTIONS);
-                            long size = (input instanceof FileChannel ? ((FileChannel) input).size() : Long.MAX_VALUE);
-                            long totalWritten = 0;
-                            while (totalWritten < size) {
-                                long written = output.transferFrom(input, totalWritten, size - totalWritten);
-                                if (written <= 0) {
-                                    break;
-                                }
-                                totalWritten += written;
-                            }
-                        }
-                        catch (IOException ex) {
-                            throw new RuntimeException(ex);
+                        if (storage instanceof PartStorageFactory.PartStorage) {
+                            ((PartStorageFactory.PartStorage) storage).transferTo(dest);
+                            return (Void) null;
                         }
-                        finally {
-                            if (input != null) {
-                                try {
-                                    input.close();
-                                }
-                                catch (IOException ignored) {
-                                }
-                            }
-                            if (output != null) {
-                                try {
-                                    output.close();
-                                }
-                                catch (IOException ignored) {
+                        try (InputStream input = storage.getInputStream();
+                             FileChannel output = FileChannel.open(dest, FILE_CHANNEL_OPTIONS)) {
+                            if (input instanceof FileInputStream) {
+                                FileChannel channel = ((FileInputStream) input).getChannel();
+                                long size = channel.size();
+                                long position = 0;
+                                while (position < size) {
+                                    long transferred = channel.transferTo(position, size - position, output);
+                                    if (transferred <= 0) {
+                                        break;
+                                    }
+                                    position += transferred;
                                 }
+                            } else {
+                                output.transferFrom(Channels.newChannel(input), 0, Long.MAX_VALUE);
                             }
                         }
                         return (Void) null;
@@ -125,30 +117,33 @@ public final class FluxSinkMultipartListener implements NioMultipartParserListen
 
                 @Override
                 public ByteBufFlux content() {
-                    ByteBuffer buffer = ByteBuffer.allocate(4096);
-                    return ByteBufFlux.fromInbound(Flux.using(() -> Channels.newChannel(storage.getInputStream()),
-                            fileChannel -> Flux.generate(sink -> {
+                    // like the request body, each buffer is released once it has been handed to the consumer
+                    return ByteBufFlux.fromInbound(Flux.using(storage::getInputStream,
+                            input -> Flux.<ByteBuf>generate(sink -> {
+                                ByteBuf buffer = ByteBufAllocator.DEFAULT.directBuffer(readBufferSize);
                                 try {
-                                    int read = fileChannel.read(buffer);
-                                    if (read > 0) {
-                                        byte[] bytes = new byte[read];
-                                        System.arraycopy(buffer.array(), buffer.arrayOffset(), bytes, 0, read);
-                                        buffer.clear();
-                                        sink.next(bytes);
-                                    } else {
+                                    // a spilled part is read straight into the buffer
+                                    int read = input instanceof FileInputStream
+                                            ? buffer.writeBytes(((FileInputStream) input).getChannel(), readBufferSize)
+                                            : buffer.writeBytes(input, readBufferSize);
+                                    if (read < 0) {
+                                        buffer.release();
                                         sink.complete();
+                                    } else {
+                                        sink.next(buffer);
                                     }
                                 } catch (IOException e) {
+                                    buffer.release();
                                     sink.error(e);
                                 }
                             })
-                            , fileChannel -> {
+                            , input -> {
                                 try {
-                                    fileChannel.close();
+                                    input.close();
                                 } catch (IOException e) {
                                 }
                             }
-                    ));
+                    ).concatMap(byteBuf -> Mono.just(byteBuf).doFinally(signalType -> byteBuf.release()), 0));
                 }
             });
         }
@@ -188,7 +183,11 @@ public final class FluxSinkMultipartListener implements NioMultipartParserListen
     @Override
     public void onError(String message, Throwable cause) {
         if (this.terminated.getAndIncrement() == 0) {
-            this.sink.error(new RuntimeException(message, cause));
+            // an exceeded limit is propagated as is, to be answered with a 413 status
+            Optional<Throwable> tooLong = cause == null ? Optional.empty() : Throwables.getCausalChain(cause).stream()
+                    .filter(TooLongFrameException.class::isInstance)
+                    .findFirst();
+            this.sink.error(tooLong.orElseGet(() -> new RuntimeException(message, cause)));
         }
     }
 
@@ -0,0 +1,245 @@
+package com.liveaction.reactiff.server.internal.multipart;
+
+import com.google.common.collect.ImmutableListMultimap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser of a multipart body into a sequence of tokens : for each part, its headers then its content as it
+ * is received, the last token of a part being flagged. Content tokens are slices of the received buffers, released by
+ * their consumer.
+ */
+final class MultipartParser {
+
+    static final class Token {
+
+        private final ImmutableListMultimap<String, String> headers;
+        private final ByteBuf content;
+        private final boolean last;
+
+        private Token(ImmutableListMultimap<String, String> headers, ByteBuf content, boolean last) {
+            this.headers = headers;
+            this.content = content;
+            this.last = last;
+        }
+
+        /**
+         * @return the headers of the part, null for content tokens
+         */
+        ImmutableListMultimap<String, String> headers() {
+            return headers;
+        }
+
+        ByteBuf content() {
+            return content;
+        }
+
+        boolean isLast() {
+            return last;
+        }
+    }
+
+    private enum State {
+        PREAMBLE, BOUNDARY, HEADERS, BODY, EPILOGUE
+    }
+
+    private static final ByteBuf CRLF = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(new byte[]{'\r', '\n'}));
+    private static final ByteBuf HEADERS_END = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(new byte[]{'\r', '\n', '\r', '\n'}));
+    private static final Token END_OF_PART = new Token(null, Unpooled.EMPTY_BUFFER, true);
+
+    private final ByteBuf dashBoundary;
+    private final ByteBuf delimiter;
+    private final int maxHeadersSize;
+    private State state = State.PREAMBLE;
+    // unprocessed end of the previous buffers, at most a part of a boundary or of the headers of a part
+    private ByteBuf pending;
+    // the buffer being parsed
+    private ByteBuf buffer;
+
+    private MultipartParser(String boundary, int maxHeadersSize) {
+        this.dashBoundary = Unpooled.copiedBuffer("--" + boundary, StandardCharsets.ISO_8859_1);
+        this.delimiter = Unpooled.copiedBuffer("\r\n--" + boundary, StandardCharsets.ISO_8859_1);
+        this.maxHeadersSize = maxHeadersSize;
+    }
+
+    static Flux<Token> parse(Flux<ByteBuf> body, String boundary, int maxHeadersSize) {
+        return Flux.defer(() -> {
+            MultipartParser parser = new MultipartParser(boundary, maxHeadersSize);
+            // received buffers are released once handed over, they are retained to be prefetched
+            return body.map(ByteBuf::retain)
+                    .concatMapIterable(parser::onNext, Queues.XS_BUFFER_SIZE)
+                    .concatWith(Mono.defer(parser::onComplete))
+                    .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease)
+                    .doOnDiscard(Token.class, token -> ReferenceCountUtil.safeRelease(token.content))
+                    .doFinally(signalType -> parser.release());
+        });
+    }
+
+    /**
+     * @return the boundary declared by a multipart content type, or null if none
+     */
+    static String boundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "boundary=", 0, "boundary=".length())) {
+                String boundary = trimmed.substring("boundary=".length());
+                if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                    boundary = boundary.substring(1, boundary.length() - 1);
+                }
+                return boundary.isEmpty() ? null : boundary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Content tokens are retained slices of the parsed buffer, which is never modified afterwards : the unprocessed
+     * end of the buffer is copied to be parsed with the next one.
+     */
+    private List<Token> onNext(ByteBuf byteBuf) {
+        buffer = pending == null ? byteBuf : Unpooled.wrappedBuffer(pending, byteBuf);
+        pending = null;
+        List<Token> tokens = new ArrayList<>(2);
+        try {
+            boolean progress = true;
+            while (progress) {
+                switch (state) {
+                    case PREAMBLE:
+                        progress = skipPreamble();
+                        break;
+                    case BOUNDARY:
+                        progress = readBoundaryEnd();
+                        break;
+                    case HEADERS:
+                        progress = readHeaders(tokens);
+                        break;
+                    case BODY:
+                        progress = readBody(tokens);
+                        break;
+                    default:
+                        buffer.skipBytes(buffer.readableBytes());
+                        progress = false;
+                }
+            }
+            if (buffer.isReadable()) {
+                pending = buffer.readBytes(buffer.readableBytes());
+            }
+            return tokens;
+        } catch (RuntimeException e) {
+            tokens.forEach(token -> ReferenceCountUtil.safeRelease(token.content));
+            // the received buffer is discarded by the error
+            byteBuf.retain();
+            throw e;
+        } finally {
+            buffer.release();
+            buffer = null;
+        }
+    }
+
+    private Mono<Token> onComplete() {
+        if (state != State.EPILOGUE) {
+            return Mono.error(new IllegalStateException("Multipart body ended before its closing boundary"));
+        }
+        return Mono.empty();
+    }
+
+    private boolean skipPreamble() {
+        int index = ByteBufUtil.indexOf(dashBoundary, buffer);
+        if (index < 0) {
+            buffer.skipBytes(Math.max(0, buffer.readableBytes() - dashBoundary.readableBytes() + 1));
+            return false;
+        }
+        buffer.readerIndex(index + dashBoundary.readableBytes());
+        state = State.BOUNDARY;
+        return true;
+    }
+
+    /**
+     * After a boundary : '--' closes the body, CRLF starts the headers of the next part.
+     */
+    private boolean readBoundaryEnd() {
+        if (buffer.readableBytes() < 2) {
+            return false;
+        }
+        byte first = buffer.getByte(buffer.readerIndex());
+        byte second = buffer.getByte(buffer.readerIndex() + 1);
+        if (first == '-' && second == '-') {
+            state = State.EPILOGUE;
+        } else if (first == '\r' && second == '\n') {
+            buffer.skipBytes(2);
+            state = State.HEADERS;
+        } else {
+            throw new IllegalStateException("Invalid multipart boundary");
+        }
+        return true;
+    }
+
+    private boolean readHeaders(List<Token> tokens) {
+        int end;
+        int length;
+        if (buffer.readableBytes() >= 2 && ByteBufUtil.equals(buffer, buffer.readerIndex(), CRLF, 0, 2)) {
+            end = buffer.readerIndex();
+            length = 2;
+        } else {
+            end = ByteBufUtil.indexOf(HEADERS_END, buffer);
+            length = 4;
+        }
+        if (end < 0) {
+            if (buffer.readableBytes() > maxHeadersSize) {
+                throw new IllegalStateException("Multipart part headers exceed " + maxHeadersSize + " bytes");
+            }
+            return false;
+        }
+        ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.builder();
+        String block = buffer.toString(buffer.readerIndex(), end - buffer.readerIndex(), StandardCharsets.UTF_8);
+        for (String line : block.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+            }
+        }
+        buffer.readerIndex(end + length);
+        tokens.add(new Token(headers.build(), null, false));
+        state = State.BODY;
+        return true;
+    }
+
+    private boolean readBody(List<Token> tokens) {
+        int index = ByteBufUtil.indexOf(delimiter, buffer);
+        if (index < 0) {
+            // the end of the buffer may be the beginning of the delimiter
+            int length = buffer.readableBytes() - delimiter.readableBytes() + 1;
+            if (length > 0) {
+                tokens.add(new Token(null, buffer.readRetainedSlice(length), false));
+            }
+            return false;
+        }
+        if (index > buffer.readerIndex()) {
+            tokens.add(new Token(null, buffer.readRetainedSlice(index - buffer.readerIndex()), false));
+        }
+        tokens.add(END_OF_PART);
+        buffer.readerIndex(index + delimiter.readableBytes());
+        state = State.BOUNDARY;
+        return true;
+    }
+
+    private void release() {
+        if (pending != null) {
+            pending.release();
+            pending = null;
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.liveaction.reactiff.server.internal.multipart;
+
+import io.netty.handler.codec.TooLongFrameException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.synchronoss.cloud.nio.multipart.PartBodyStreamStorageFactory;
+import org.synchronoss.cloud.nio.stream.storage.StreamStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Stores the body of the parts in memory up to a threshold, then in a file of the storage directory, failing as soon as
+ * a part exceeds the max part size. A stored file is deleted once it has been read, or when the parts are disposed.
+ */
+public final class PartStorageFactory implements PartBodyStreamStorageFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartStorageFactory.class);
+
+    private static final OpenOption[] FILE_CHANNEL_OPTIONS =
+            {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+    private final Path directory;
+    private final int memoryThreshold;
+    private final long maxPartSize;
+    private final Queue<PartStorage> storages = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param directory   null for the system temporary directory
+     * @param maxPartSize -1 for no limit
+     */
+    public PartStorageFactory(Path directory, int memoryThreshold, long maxPartSize) {
+        this.directory = directory == null ? Paths.get(System.getProperty("java.io.tmpdir")) : directory;
+        this.memoryThreshold = memoryThreshold;
+        this.maxPartSize = maxPartSize;
+    }
+
+    @Override
+    public StreamStorage newStreamStorageForPartBody(Map<String, List<String>> headers, int partIndex) {
+        PartStorage storage = new PartStorage();
+        storages.add(storage);
+        return storage;
+    }
+
+    /**
+     * Deletes the stored parts, whether they have been read or not.
+     */
+    public void dispose() {
+        PartStorage storage;
+        while ((storage = storages.poll()) != null) {
+            storage.dispose();
+        }
+    }
+
+    final class PartStorage extends StreamStorage {
+
+        private byte[] memory = new byte[0];
+        private long size;
+        private Path file;
+        private FileChannel output;
+        private boolean disposed;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (disposed) {
+                throw new IOException("Stored part has been disposed");
+            }
+            if (maxPartSize >= 0 && size + len > maxPartSize) {
+                dispose();
+                throw new TooLongFrameException("Multipart part exceeds " + maxPartSize + " bytes");
+            }
+            if (output == null && size + len > memoryThreshold) {
+                spill();
+            }
+            if (output == null) {
+                if (size + len > memory.length) {
+                    memory = Arrays.copyOf(memory, (int) Math.min(memoryThreshold, Math.max(2 * memory.length, size + len)));
+                }
+                System.arraycopy(b, off, memory, (int) size, len);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+            }
+            size += len;
+        }
+
+        private void spill() throws IOException {
+            file = directory.resolve("reactiff-part-" + UUID.randomUUID() + ".tmp");
+            output = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer buffer = ByteBuffer.wrap(memory, 0, (int) size);
+            while (buffer.hasRemaining()) {
+                output.write(buffer);
+            }
+            memory = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (output != null && output.isOpen()) {
+                output.close();
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            if (disposed) {
+                throw new IllegalStateException("The stored part has already been read");
+            }
+            if (file == null) {
+                return new ByteArrayInputStream(memory, 0, (int) size);
+            }
+            try {
+                close();
+                return new FileInputStream(file.toFile()) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        dispose();
+                    }
+                };
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read stored part " + file, e);
+            }
+        }
+
+        /**
+         * A stored file is moved to dest, atomically when on the same file system, the content is copied otherwise.
+         */
+        void transferTo(Path dest) throws IOException {
+            if (disposed) {
+                throw new IllegalStateException("The stored part has already been read");
+            }
+            close();
+            if (file != null) {
+                try {
+                    Files.move(file, dest, StandardCopyOption.ATOMIC_MOVE);
+                    file = null;
+                    disposed = true;
+                    return;
+                } catch (AtomicMoveNotSupportedException e) {
+                    LOGGER.debug("Cannot move {} to {}, it is copied", file, dest);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(dest, FILE_CHANNEL_OPTIONS)) {
+                if (file == null) {
+                    ByteBuffer buffer = ByteBuffer.wrap(memory, 0, (int) size);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } else {
+                    try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+                        long position = 0;
+                        while (position < size) {
+                            long transferred = input.transferTo(position, size - position, channel);
+                            if (transferred <= 0) {
+                                break;
+                            }
+                            position += transferred;
+                        }
+                    }
+                    dispose();
+                }
+            }
+        }
+
+        @Override
+        public boolean dispose() {
+            try {
+                close();
+            } catch (IOException e) {
+                LOGGER.debug("Cannot close {}", file, e);
+            }
+            disposed = true;
+            memory = null;
+            if (file == null) {
+                return true;
+            }
+            try {
+                return Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.debug("Cannot delete {}", file, e);
+                return false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,378 @@
+package com.liveaction.reactiff.server.internal.multipart;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.net.MediaType;
+import com.liveaction.reactiff.api.server.multipart.FilePart;
+import com.liveaction.reactiff.api.server.multipart.FormFieldPart;
+import com.liveaction.reactiff.api.server.multipart.Part;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.util.ReferenceCountUtil;
+import org.reactivestreams.Subscription;
+import org.synchronoss.cloud.nio.multipart.MultipartUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.netty.ByteBufFlux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the parts of a multipart body as they are received, without storing them.
+ * <p>
+ * Form fields are emitted once their value is received. The content of a file part is read from the network as it is
+ * consumed : it has to be consumed, or cancelled, before the next part is received.
+ */
+public final class StreamingParts {
+
+    public static final int MAX_HEADERS_SIZE = 16 * 1024;
+
+    private static final OpenOption[] FILE_CHANNEL_OPTIONS =
+            {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+    private final FluxSink<Part> sink;
+    private final long maxPartSize;
+    private final long maxFormFieldSize;
+    private final BaseSubscriber<MultipartParser.Token> tokens = new BaseSubscriber<MultipartParser.Token>() {
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            requestNext();
+        }
+
+        @Override
+        protected void hookOnNext(MultipartParser.Token token) {
+            onToken(token);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            sink.complete();
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            onTokensError(throwable);
+        }
+    };
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // the part being received
+    private volatile StreamedFilePart filePart;
+    private volatile FormField formField;
+    private volatile boolean requested;
+    private volatile boolean cancelled;
+    private long partSize;
+
+    private StreamingParts(FluxSink<Part> sink, long maxPartSize, long maxFormFieldSize) {
+        this.sink = sink;
+        this.maxPartSize = maxPartSize;
+        this.maxFormFieldSize = maxFormFieldSize;
+    }
+
+    /**
+     * @param maxPartSize      the max size of the body of a part, -1 for no limit
+     * @param maxFormFieldSize the max size of the value of a form field, which is buffered, -1 for no limit
+     */
+    public static Flux<Part> parse(Flux<ByteBuf> body, String contentType, long maxPartSize, long maxFormFieldSize) {
+        String boundary = MultipartParser.boundary(contentType);
+        if (boundary == null) {
+            return Flux.error(new IllegalArgumentException("No boundary in multipart content type " + contentType));
+        }
+        return Flux.create(sink -> {
+            StreamingParts parts = new StreamingParts(sink, maxPartSize, maxFormFieldSize);
+            sink.onCancel(parts::onPartsCancelled);
+            MultipartParser.parse(body, boundary, MAX_HEADERS_SIZE).subscribe(parts.tokens);
+            sink.onRequest(n -> parts.requestNext());
+        });
+    }
+
+    private void onToken(MultipartParser.Token token) {
+        requested = false;
+        if (token.headers() != null) {
+            partSize = 0;
+            onHeaders(token.headers());
+        } else {
+            partSize += token.content().readableBytes();
+            if (maxPartSize >= 0 && partSize > maxPartSize) {
+                onTooLong(token, "Multipart part exceeds " + maxPartSize + " bytes");
+                return;
+            } else if (formField != null && maxFormFieldSize >= 0 && partSize > maxFormFieldSize) {
+                onTooLong(token, "Multipart form field exceeds " + maxFormFieldSize + " bytes");
+                return;
+            } else if (formField != null) {
+                formField.add(token);
+            } else if (filePart != null) {
+                filePart.add(token);
+            }
+        }
+        requestNext();
+    }
+
+    private void onTooLong(MultipartParser.Token token, String message) {
+        token.content().release();
+        tokens.cancel();
+        onTokensError(new TooLongFrameException(message));
+    }
+
+    private void onTokensError(Throwable throwable) {
+        FormField formField = this.formField;
+        if (formField != null) {
+            formField.release();
+        }
+        StreamedFilePart filePart = this.filePart;
+        if (filePart != null) {
+            filePart.error(throwable);
+        }
+        sink.error(throwable);
+    }
+
+    private void onHeaders(ImmutableListMultimap<String, String> headers) {
+        Map<String, List<String>> headersMap = Multimaps.asMap(headers);
+        String name = MultipartUtils.getFieldName(headersMap);
+        String filename = MultipartUtils.getFileName(headersMap);
+        if (filename == null) {
+            formField = new FormField(name, headers);
+        } else {
+            filePart = new StreamedFilePart(name, filename, headers);
+            sink.next(filePart);
+        }
+    }
+
+    private void onPartsCancelled() {
+        cancelled = true;
+        requestNext();
+    }
+
+    /**
+     * Requests the next token when the part being received, or the next part, is requested.
+     */
+    private void requestNext() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            if (!requested && !tokens.isDisposed()) {
+                StreamedFilePart filePart = this.filePart;
+                boolean demand;
+                if (filePart != null) {
+                    demand = filePart.demand();
+                } else if (formField != null) {
+                    demand = true;
+                } else if (cancelled) {
+                    // the current part, if any, has been consumed
+                    tokens.cancel();
+                    demand = false;
+                } else {
+                    demand = sink.requestedFromDownstream() > 0;
+                }
+                if (demand) {
+                    requested = true;
+                    tokens.request(1);
+                }
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private final class FormField {
+
+        private final String name;
+        private final ImmutableListMultimap<String, String> headers;
+        private final CompositeByteBuf content = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+
+        private FormField(String name, ImmutableListMultimap<String, String> headers) {
+            this.name = name;
+            this.headers = headers;
+        }
+
+        private void add(MultipartParser.Token token) {
+            if (token.content().isReadable()) {
+                content.addComponent(true, token.content());
+            }
+            if (token.isLast()) {
+                Charset charset = charset(headers);
+                String value;
+                try {
+                    value = content.toString(charset);
+                } finally {
+                    content.release();
+                }
+                formField = null;
+                sink.next(new FormFieldPart() {
+                    @Override
+                    public String value() {
+                        return value;
+                    }
+
+                    @Override
+                    public String name() {
+                        return name;
+                    }
+
+                    @Override
+                    public ListMultimap<String, String> headers() {
+                        return headers;
+                    }
+
+                    @Override
+                    public ByteBufFlux content() {
+                        // not pooled, the consumer does not have to release it
+                        return ByteBufFlux.fromInbound(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(value.getBytes(charset))));
+                    }
+                });
+            }
+        }
+
+        private void release() {
+            content.release();
+        }
+    }
+
+    private final class StreamedFilePart implements FilePart {
+
+        private final String name;
+        private final String filename;
+        private final ImmutableListMultimap<String, String> headers;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+        private volatile FluxSink<MultipartParser.Token> contentSink;
+        private volatile boolean contentCancelled;
+
+        private StreamedFilePart(String name, String filename, ImmutableListMultimap<String, String> headers) {
+            this.name = name;
+            this.filename = filename;
+            this.headers = headers;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String filename() {
+            return filename;
+        }
+
+        @Override
+        public ListMultimap<String, String> headers() {
+            return headers;
+        }
+
+        @Override
+        public ByteBufFlux content() {
+            Flux<MultipartParser.Token> content = Flux.defer(() -> {
+                if (!subscribed.compareAndSet(false, true)) {
+                    return Flux.error(new IllegalStateException("The content of a streamed part can only be read once"));
+                }
+                return Flux.<MultipartParser.Token>create(contentSink -> {
+                    contentSink.onRequest(n -> requestNext());
+                    contentSink.onCancel(() -> {
+                        contentCancelled = true;
+                        requestNext();
+                    });
+                    this.contentSink = contentSink;
+                    requestNext();
+                });
+            });
+            // like the request body, each buffer is released once it has been handed to the consumer. Tokens, rather
+            // than buffers, are queued so that a buffer discard hook of the consumer does not release them twice
+            return ByteBufFlux.fromInbound(content
+                    .concatMap(token -> Mono.just(token.content()).doFinally(signalType -> token.content().release()), 0)
+                    .doOnDiscard(MultipartParser.Token.class, token -> ReferenceCountUtil.safeRelease(token.content())));
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            throw new IllegalStateException("The content of a streamed part can only be read through content() or transferTo()");
+        }
+
+        @Override
+        public Mono<Void> transferTo(Path dest, Scheduler executor) {
+            return Mono.using(() -> FileChannel.open(dest, FILE_CHANNEL_OPTIONS),
+                    channel -> content()
+                            .concatMap(byteBuf -> {
+                                // written once handed over, while the next buffer is received
+                                byteBuf.retain();
+                                return Mono.fromCallable(() -> write(channel, byteBuf))
+                                        .subscribeOn(executor)
+                                        .doFinally(signalType -> byteBuf.release());
+                            }, 0)
+                            .then(),
+                    channel -> {
+                        try {
+                            channel.close();
+                        } catch (IOException ignored) {
+                        }
+                    })
+                    .subscribeOn(executor);
+        }
+
+        /**
+         * Content is requested by its consumer, or drained once it has been cancelled.
+         */
+        private boolean demand() {
+            FluxSink<MultipartParser.Token> contentSink = this.contentSink;
+            return contentCancelled || contentSink != null && contentSink.requestedFromDownstream() > 0;
+        }
+
+        private void add(MultipartParser.Token token) {
+            if (token.isLast()) {
+                filePart = null;
+            }
+            if (contentCancelled) {
+                ReferenceCountUtil.safeRelease(token.content());
+            } else if (token.content().isReadable()) {
+                contentSink.next(token);
+            }
+            if (token.isLast() && !contentCancelled) {
+                contentSink.complete();
+            }
+        }
+
+        private void error(Throwable throwable) {
+            FluxSink<MultipartParser.Token> contentSink = this.contentSink;
+            if (contentSink != null) {
+                contentSink.error(throwable);
+            }
+        }
+    }
+
+    private static int write(FileChannel channel, ByteBuf byteBuf) throws IOException {
+        int written = 0;
+        while (byteBuf.isReadable()) {
+            written += byteBuf.readBytes(channel, byteBuf.readableBytes());
+        }
+        return written;
+    }
+
+    private static Charset charset(ListMultimap<String, String> headers) {
+        for (Map.Entry<String, String> header : headers.entries()) {
+            if (HttpHeaderNames.CONTENT_TYPE.contentEqualsIgnoreCase(header.getKey())) {
+                try {
+                    return MediaType.parse(header.getValue()).charset().or(StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+}
@@ -21,6 +21,8 @@ public final class ParamConverter {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParamConverter.class);
 
     private final Map<Type, ParamTypeConverter<?>> converters = Maps.newConcurrentMap();
+    // resolved converter by target type, an empty value means that the type cannot be converted. Replaced when converters change.
+    private volatile Map<Class<?>, Optional<ParamTypeConverter<?>>> resolvedConverters = Maps.newConcurrentMap();
 
     private static final ImmutableList<ParamTypeConverter<?>> DEFAULT_CONVERTERS = ImmutableList.of(
             StringConverter.INSTANCE,
@@ -39,12 +41,14 @@ public final class ParamConverter {
         Type type = ((ParameterizedType) converter.getClass().getGenericInterfaces()[0]).getActualTypeArguments()[0];
         LOGGER.debug("Adding a converter for {}", type.getTypeName());
         this.converters.put(type, converter);
+        this.resolvedConverters = Maps.newConcurrentMap();
     }
 
     public void removeConverter(ParamTypeConverter<?> converter) {
         Type type = ((ParameterizedType) converter.getClass().getGenericInterfaces()[0]).getActualTypeArguments()[0];
         LOGGER.debug("Removing a converter for {}", type.getTypeName());
         this.converters.remove(type, converter);
+        this.resolvedConverters = Maps.newConcurrentMap();
     }
 
     @SuppressWarnings("unchecked")
@@ -101,6 +105,12 @@ public final class ParamConverter {
         }
 
         ParamTypeConverter converter = getConverter(theType);
+        if (componentType.isPrimitive()) {
+            Object array = createPrimitiveArray(input, componentType, converter);
+            if (array != null) {
+                return (T) array;
+            }
+        }
 
         List<Object> list = new ArrayList<>();
         for (String v : input) {
@@ -117,6 +127,50 @@ public final class ParamConverter {
         return (T) array;
     }
 
+    /**
+     * Parses int, long, double and boolean arrays without boxing when the default conversion applies to the element
+     * type, returns null otherwise. Without a registered converter, the wrapper types are converted reflectively through
+     * their String constructor or valueOf method, which parse the value the same way.
+     */
+    private Object createPrimitiveArray(Collection<String> input, Class<?> componentType, ParamTypeConverter<?> converter) {
+        boolean reflective = converter instanceof ConstructorBasedConverter || converter instanceof MethodBasedConverter;
+        try {
+            if (componentType == int.class && reflective) {
+                int[] array = new int[input.size()];
+                int i = 0;
+                for (String v : input) {
+                    array[i++] = Integer.parseInt(v);
+                }
+                return array;
+            } else if (componentType == long.class && reflective) {
+                long[] array = new long[input.size()];
+                int i = 0;
+                for (String v : input) {
+                    array[i++] = Long.parseLong(v);
+                }
+                return array;
+            } else if (componentType == double.class && reflective) {
+                double[] array = new double[input.size()];
+                int i = 0;
+                for (String v : input) {
+                    array[i++] = Double.parseDouble(v);
+                }
+                return array;
+            } else if (componentType == boolean.class && converter == BooleanConverter.INSTANCE) {
+                boolean[] array = new boolean[input.size()];
+                int i = 0;
+                for (String v : input) {
+                    array[i++] = Boolean.parseBoolean(v);
+                }
+                return array;
+            }
+            return null;
+        } catch (NumberFormatException | NullPointerException e) {
+            // same failure as the valueOf based converter
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     private <T> T convertSingleValue(String input, Class<T> type) {
         if (type.isPrimitive()) {
             type = Primitives.wrap(type);
@@ -131,15 +185,26 @@ public final class ParamConverter {
 
     @SuppressWarnings("unchecked")
     private <T> ParamTypeConverter<T> getConverter(Class<T> type) {
+        Map<Class<?>, Optional<ParamTypeConverter<?>>> resolvedConverters = this.resolvedConverters;
+        Optional<ParamTypeConverter<?>> resolved = resolvedConverters.get(type);
+        if (resolved == null) {
+            resolved = Optional.ofNullable(resolveConverter(type));
+            resolvedConverters.put(type, resolved);
+        }
+        return (ParamTypeConverter<T>) resolved
+                .orElseThrow(() -> new NoSuchElementException(String.format("Cannot find a converter able to create instance of %s", type.getName())));
+    }
+
+    private ParamTypeConverter<?> resolveConverter(Class<?> type) {
         List<ParamTypeConverter<?>> paramConverters = Lists.newArrayList(converters.values());
         paramConverters.add(ConstructorBasedConverter.getFromType(type));
         paramConverters.add(MethodBasedConverter.getFromType(type));
 
         for (ParamTypeConverter<?> converter : paramConverters) {
             if (converter != null && converter.canConvertType(type)) {
-                return (ParamTypeConverter<T>) converter;
+                return converter;
             }
         }
-        throw new NoSuchElementException(String.format("Cannot find a converter able to create instance of %s", type.getName()));
+        return null;
     }
 }
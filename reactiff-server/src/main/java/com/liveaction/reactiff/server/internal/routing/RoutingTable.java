@@ -0,0 +1,312 @@
+package com.liveaction.reactiff.server.internal.routing;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.netty.handler.codec.http.HttpMethod;
+import org.reactivestreams.Publisher;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Method indexed tree of path segments. Routes are compiled once and a request path is dispatched by walking the tree
+ * segment by segment, so the cost of a lookup depends on the length of the path and not on the number of routes.
+ * <p>
+ * Matching semantics are the ones of reactor-netty path templates : '{name}' matches a single segment, '**' or
+ * '{name}**' as last segment matches the rest of the path. When several routes match a path, the first registered wins.
+ */
+public final class RoutingTable {
+
+    private static final Pattern PARAM_PATTERN = Pattern.compile("\\{([^/]+?)}");
+    private static final Pattern PARAM_NAME_PATTERN = Pattern.compile("[a-zA-Z][a-zA-Z0-9]*");
+    private static final String FULL_SPLAT = "**";
+
+    private final Map<HttpMethod, Node> roots = Maps.newHashMap();
+    private int order = 0;
+    private int maxDepth = 0;
+
+    /**
+     * Adds a route to this table. Routes added first take precedence over the ones added after.
+     *
+     * @throws IllegalArgumentException if the path template is not valid
+     */
+    public void add(com.liveaction.reactiff.api.server.HttpMethod method, String path, BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>> handler) {
+        add(HttpMethod.valueOf(method.name()), path, handler);
+    }
+
+    public void add(HttpMethod method, String path, BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>> handler) {
+        String template = path.startsWith("/") ? path : "/" + path;
+        List<String> segments = Arrays.asList(template.substring(1).split("/", -1));
+        Entry entry = new Entry(order++, template, segments, handler);
+        Node node = roots.computeIfAbsent(method, m -> new Node());
+        node.minOrder = Math.min(node.minOrder, entry.order);
+        for (int depth = 0; depth < segments.size(); depth++) {
+            String segment = segments.get(depth);
+            boolean last = depth == segments.size() - 1;
+            if (segment.contains(FULL_SPLAT)) {
+                String prefix = segment.substring(0, segment.length() - FULL_SPLAT.length());
+                if (!last || !segment.endsWith(FULL_SPLAT) || !(prefix.isEmpty() || isParam(prefix))) {
+                    throw new IllegalArgumentException(String.format("'%s' is only supported as '%s' or '{name}%s' last segment of a path : '%s'", FULL_SPLAT, FULL_SPLAT, FULL_SPLAT, path));
+                }
+                if (node.catchAll == null || node.catchAll.order > entry.order) {
+                    node.catchAll = entry;
+                }
+                break;
+            }
+            node = node.child(segment);
+            node.minOrder = Math.min(node.minOrder, entry.order);
+            if (last && (node.terminal == null || node.terminal.order > entry.order)) {
+                node.terminal = entry;
+            }
+        }
+        maxDepth = Math.max(maxDepth, segments.size());
+    }
+
+    /**
+     * Finds the route matching the given request uri, or null if none matches.
+     */
+    public Match match(HttpMethod method, String uri) {
+        Node root = roots.get(method);
+        if (root == null) {
+            return null;
+        }
+        String path = toPath(uri);
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+        Search search = new Search(path, maxDepth);
+        search.visit(root, 1, 0);
+        return search.best == null ? null : new Match(search.best, path, search.bestBounds);
+    }
+
+    private static String toPath(String uri) {
+        String path = uri;
+        if (!path.startsWith("/")) {
+            int scheme = path.indexOf("://");
+            int start = path.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+            path = start < 0 ? "/" : path.substring(start);
+        }
+        int query = path.lastIndexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
+
+    public static final class Match {
+
+        private final Entry entry;
+        private final String path;
+        private final int[] bounds;
+        private Map<String, String> params;
+
+        private Match(Entry entry, String path, int[] bounds) {
+            this.entry = entry;
+            this.path = path;
+            this.bounds = bounds;
+        }
+
+        public String template() {
+            return entry.template;
+        }
+
+        public BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>> handler() {
+            return entry.handler;
+        }
+
+        public Map<String, String> params() {
+            if (params == null) {
+                params = entry.resolveParams(path, bounds);
+            }
+            return params;
+        }
+
+    }
+
+    private static final class Search {
+
+        private final String path;
+        private final int[] bounds;
+        private Entry best;
+        private int[] bestBounds;
+
+        private Search(String path, int maxDepth) {
+            this.path = path;
+            this.bounds = new int[maxDepth * 2];
+        }
+
+        private void visit(Node node, int start, int depth) {
+            if (best != null && node.minOrder >= best.order) {
+                return;
+            }
+            if (start > path.length()) {
+                if (node.terminal != null) {
+                    accept(node.terminal);
+                }
+                return;
+            }
+            if (node.catchAll != null) {
+                accept(node.catchAll);
+            }
+            if (depth * 2 == bounds.length) {
+                // no route has that many segments, the path is longer than all of them
+                return;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            bounds[depth * 2] = start;
+            bounds[depth * 2 + 1] = end;
+            if (node.staticChildren != null) {
+                Node child = node.staticChildren.get(path.substring(start, end));
+                if (child != null) {
+                    visit(child, end + 1, depth + 1);
+                }
+            }
+            if (node.paramChild != null) {
+                visit(node.paramChild, end + 1, depth + 1);
+            }
+            if (node.patternChildren != null) {
+                for (Map.Entry<Pattern, Node> patternChild : node.patternChildren.entrySet()) {
+                    if (patternChild.getKey().matcher(path).region(start, end).matches()) {
+                        visit(patternChild.getValue(), end + 1, depth + 1);
+                    }
+                }
+            }
+        }
+
+        private void accept(Entry entry) {
+            if (best == null || entry.order < best.order) {
+                best = entry;
+                bestBounds = bounds.clone();
+            }
+        }
+
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> staticChildren;
+        private Node paramChild;
+        private Map<Pattern, Node> patternChildren;
+        private Entry terminal;
+        private Entry catchAll;
+        private int minOrder = Integer.MAX_VALUE;
+
+        private Node child(String segment) {
+            if (isParam(segment)) {
+                if (paramChild == null) {
+                    paramChild = new Node();
+                }
+                return paramChild;
+            } else if (segment.indexOf('{') >= 0) {
+                if (patternChildren == null) {
+                    patternChildren = Maps.newLinkedHashMap();
+                }
+                Pattern pattern = Pattern.compile(segmentRegex(segment, false));
+                return patternChildren.entrySet().stream()
+                        .filter(e -> e.getKey().pattern().equals(pattern.pattern()))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElseGet(() -> {
+                            Node node = new Node();
+                            patternChildren.put(pattern, node);
+                            return node;
+                        });
+            } else {
+                if (staticChildren == null) {
+                    staticChildren = Maps.newHashMap();
+                }
+                return staticChildren.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+
+    }
+
+    private static String segmentRegex(String segment, boolean splat) {
+        StringBuilder regex = new StringBuilder();
+        Matcher matcher = PARAM_PATTERN.matcher(segment);
+        int last = 0;
+        while (matcher.find()) {
+            regex.append(Pattern.quote(segment.substring(last, matcher.start())));
+            regex.append("(?<").append(Entry.checkName(matcher.group(1))).append(">[^/]*)");
+            last = matcher.end();
+        }
+        regex.append(Pattern.quote(segment.substring(last)));
+        if (splat) {
+            // '{name}**' captures the rest of the path, '**' matches it
+            return segment.isEmpty() ? ".*" : regex.toString().replace(">[^/]*)", ">.*)");
+        }
+        return regex.toString();
+    }
+
+    private static boolean isParam(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.indexOf('}') == segment.length() - 1;
+    }
+
+    private static final class Entry {
+
+        private final int order;
+        private final String template;
+        private final BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>> handler;
+        private final String[] segmentParams;
+        private final Pattern pattern;
+
+        private Entry(int order, String template, List<String> segments, BiFunction<? super HttpServerRequest, ? super HttpServerResponse, ? extends Publisher<Void>> handler) {
+            this.order = order;
+            this.template = template;
+            this.handler = handler;
+            this.segmentParams = new String[segments.size()];
+            boolean simple = true;
+            StringBuilder regex = new StringBuilder("^");
+            for (int depth = 0; depth < segments.size(); depth++) {
+                String segment = segments.get(depth);
+                boolean splat = segment.endsWith(FULL_SPLAT);
+                if (splat) {
+                    segment = segment.substring(0, segment.length() - FULL_SPLAT.length());
+                    simple = false;
+                } else if (isParam(segment)) {
+                    segmentParams[depth] = checkName(segment.substring(1, segment.length() - 1));
+                } else if (segment.indexOf('{') >= 0) {
+                    simple = false;
+                }
+                regex.append('/').append(segmentRegex(segment, splat));
+            }
+            this.pattern = simple ? null : Pattern.compile(regex.append('$').toString());
+        }
+
+        private Map<String, String> resolveParams(String path, int[] bounds) {
+            if (pattern != null) {
+                Matcher matcher = pattern.matcher(path);
+                if (!matcher.matches()) {
+                    return ImmutableMap.of();
+                }
+                Map<String, String> params = Maps.newHashMap();
+                PARAM_PATTERN.matcher(template).results()
+                        .map(r -> r.group(1))
+                        .forEach(name -> params.put(name, matcher.group(name)));
+                return params;
+            }
+            Map<String, String> params = Maps.newHashMapWithExpectedSize(segmentParams.length);
+            for (int depth = 0; depth < segmentParams.length; depth++) {
+                if (segmentParams[depth] != null) {
+                    params.put(segmentParams[depth], path.substring(bounds[depth * 2], bounds[depth * 2 + 1]));
+                }
+            }
+            return params;
+        }
+
+        private static String checkName(String name) {
+            if (!PARAM_NAME_PATTERN.matcher(name).matches()) {
+                throw new IllegalArgumentException(String.format("Invalid path parameter name '%s' : only letters and digits are allowed", name));
+            }
+            return name;
+        }
+
+    }
+
+}
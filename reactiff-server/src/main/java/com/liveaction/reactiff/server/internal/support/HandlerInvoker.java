@@ -0,0 +1,52 @@
+package com.liveaction.reactiff.server.internal.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Calls a handler method on its {@link com.liveaction.reactiff.api.server.ReactiveHandler}.
+ * Exceptions thrown by the handler method are rethrown as is.
+ */
+@FunctionalInterface
+public interface HandlerInvoker {
+
+    Object invoke(Object... args) throws Throwable;
+
+    /**
+     * Creates an invoker backed by a {@link MethodHandle} bound to the target, which skips the access checks and the
+     * exception wrapping of {@link Method#invoke}. The handle is held by the invoker and not by a static final field,
+     * so the JIT does not treat it as a constant and cannot inline through it the way it does for constant handles.
+     * Falls back to reflection when the method cannot be bound.
+     */
+    static HandlerInvoker create(Object target, Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(method)
+                    .bindTo(target)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return args -> (Object) methodHandle.invokeExact(args);
+        } catch (IllegalAccessException | RuntimeException e) {
+            Logger logger = LoggerFactory.getLogger(HandlerInvoker.class);
+            logger.debug("Cannot bind a method handle to {}, falling back to reflection", method, e);
+            return reflective(target, method);
+        }
+    }
+
+    static HandlerInvoker reflective(Object target, Method method) {
+        return args -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+    }
+
+}
@@ -3,7 +3,7 @@ package com.liveaction.reactiff.server.internal.support;
 import com.google.common.collect.ImmutableSet;
 import com.liveaction.reactiff.api.server.ReactiveHandler;
 import com.liveaction.reactiff.api.server.route.Route;
-import reactor.netty.http.server.HttpServerRoutes;
+import com.liveaction.reactiff.server.internal.routing.RoutingTable;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -14,6 +14,6 @@ public interface HandlerSupportFunction<T extends Annotation, R extends Route> {
 
     ImmutableSet<R> buildRoutes(T annotation, Method method);
 
-    void register(HttpServerRoutes httpServerRoutes, ReactiveHandler reactiveHandler, R route);
+    void register(RoutingTable routingTable, ReactiveHandler reactiveHandler, R route);
 
 }
@@ -3,7 +3,6 @@ package com.liveaction.reactiff.server.internal.support;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.CodecManager;
 import com.liveaction.reactiff.api.server.FilterChain;
@@ -22,7 +21,9 @@ import com.liveaction.reactiff.api.server.route.HttpRoute;
 import com.liveaction.reactiff.api.server.route.Route;
 import com.liveaction.reactiff.server.context.ExecutionContext;
 import com.liveaction.reactiff.server.context.ExecutionContextService;
+import com.liveaction.reactiff.server.internal.RequestSettings;
 import com.liveaction.reactiff.server.internal.param.ParamConverter;
+import com.liveaction.reactiff.server.internal.routing.RoutingTable;
 import com.liveaction.reactiff.server.internal.utils.FilterUtils;
 import com.liveaction.reactiff.server.internal.utils.ResultUtils;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -36,9 +37,7 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
-import reactor.netty.http.server.HttpServerRoutes;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.net.InetSocketAddress;
@@ -59,21 +58,23 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
 
     private final CodecManager codecManager;
     private final ParamConverter paramConverter;
-    private final Function<FilterChain, FilterChain> filterChainer;
+    private final BiFunction<FilterChain, Optional<Route>, FilterChain> filterChainer;
     private final boolean writeErrorStacktrace;
     private final ExecutionContextService executionContextService;
     private final Scheduler workScheduler;
 
     private final AtomicReference<Set<String>> originsToMonitor = new AtomicReference<>(ImmutableSet.of());
     private final Optional<String> originHeader;
+    private final RequestSettings requestSettings;
 
     public RequestMappingSupport(CodecManager codecManager,
                                  ParamConverter paramConverter,
-                                 Function<FilterChain, FilterChain> chainFunction,
+                                 BiFunction<FilterChain, Optional<Route>, FilterChain> chainFunction,
                                  boolean writeErrorStacktrace,
                                  ExecutionContextService executionContextService,
                                  Scheduler workScheduler,
-                                 Optional<String> originHeader) {
+                                 Optional<String> originHeader,
+                                 RequestSettings requestSettings) {
         this.codecManager = codecManager;
         this.paramConverter = paramConverter;
         this.filterChainer = chainFunction;
@@ -81,6 +82,7 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
         this.executionContextService = executionContextService;
         this.workScheduler = workScheduler;
         this.originHeader = originHeader;
+        this.requestSettings = requestSettings;
     }
 
     @Override
@@ -96,21 +98,26 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
     }
 
     @Override
-    public void register(HttpServerRoutes httpServerRoutes, ReactiveHandler reactiveHandler, HttpRoute route) {
+    public void register(RoutingTable routingTable, ReactiveHandler reactiveHandler, HttpRoute route) {
         Method method = route.handlerMethod();
-        FilterChain routeChain = (request) -> Mono.defer(() -> invokeHandlerMethod(reactiveHandler, method, request))
+        HandlerInvoker handlerInvoker = HandlerInvoker.create(reactiveHandler, method);
+        TypeToken<?> returnType = TypeToken.of(method.getGenericReturnType());
+        ArgumentBinder[] argumentBinders = Stream.of(method.getParameters())
+                .map(this::argumentBinder)
+                .toArray(ArgumentBinder[]::new);
+        FilterChain routeChain = (request) -> Mono.defer(() -> invokeHandlerMethod(handlerInvoker, returnType, argumentBinders, request))
                 .doOnError(error -> LOGGER.debug("An error occurred while calling {}:{}, {}", reactiveHandler.getClass().getSimpleName(), method.getName(), error.getMessage()))
                 .transform(mono -> workScheduler == null ? mono : mono.subscribeOn(workScheduler));
+        Optional<Route> matchingRoute = Optional.of(Route.http(0, route.method, route.path(), method));
+        FilterChain filterChain = filterChainer.apply(routeChain, matchingRoute);
 
-        BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> onRequest = (req, res) -> {
-            Optional<Route> matchingRoute = Optional.of(Route.http(0, HttpMethod.valueOf(req.method().name()), route.path(), method));
-            return FilterUtils.applyFilters(req, res, codecManager, filterChainer, routeChain, matchingRoute, writeErrorStacktrace);
-        };
-        route.method.route(httpServerRoutes, route.path(), onRequest);
+        BiFunction<HttpServerRequest, HttpServerResponse, Publisher<Void>> onRequest = (req, res) ->
+                FilterUtils.applyFilters(req, res, codecManager, filterChain, matchingRoute, writeErrorStacktrace, requestSettings);
+        routingTable.add(route.method, route.path(), onRequest);
         LOGGER.trace("Registered route {}", route);
     }
 
-    private Mono<Result> invokeHandlerMethod(ReactiveHandler reactiveHandler, Method method, Request request) {
+    private Mono<Result> invokeHandlerMethod(HandlerInvoker handlerInvoker, TypeToken<?> returnType, ArgumentBinder[] argumentBinders, Request request) {
         try {
             Optional<String> origin = originHeader.map(request::header);
             Set<String> originsToMonitor = this.originsToMonitor.get();
@@ -119,99 +126,87 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
                 LOGGER.info("{} {} from {}", request.method(), request.uri(), origin.get());
             }
             ExecutionContext executionContext = executionContextService.prepare();
-            TypeToken<?> returnType = TypeToken.of(method.getGenericReturnType());
-            List<Object> args = Lists.newArrayList();
-            Parameter[] parameters = method.getParameters();
-            for (int i = 0; i < method.getParameterCount(); i++) {
-                Parameter parameter = parameters[i];
-                TypeToken<?> parameterType = TypeToken.of(parameter.getType());
-                TypeToken<?> parametrizedType = TypeToken.of(parameter.getParameterizedType());
-                if (parameterType.isSupertypeOf(Request.class)) {
-                    args.add(requestWithMultipartContext(request, executionContext));
-                } else {
-                    PathParam annotation;
-                    HeaderParam headerAnnotation;
-                    UriParam uriParam;
-                    DefaultValue defaultValueAnnotation = parameter.getAnnotation(DefaultValue.class);
-                    String defaultValue = defaultValueAnnotation == null ? null : defaultValueAnnotation.value();
-                    if ((annotation = parameter.getAnnotation(PathParam.class)) != null) {
-                        String name = annotation.value();
-                        if (name.isEmpty()) {
-                            name = parameter.getName();
-                        }
-                        args.add(paramConverter.convertValue(ImmutableList.of(request.pathParam(name)), parametrizedType));
-                    } else if (parameter.getAnnotation(RequestBody.class) != null) {
-                        if (parameterType.isSupertypeOf(Mono.class)) {
-                            TypeToken<?> paramType = parametrizedType.resolveType(Mono.class.getTypeParameters()[0]);
-                            args.add(request.bodyToMono(paramType)
-                                    .transform(mono -> workScheduler == null ? mono : mono.publishOn(workScheduler))
-                                    .doOnEach(v -> executionContext.apply()));
-                        } else if (parameterType.isSupertypeOf(Flux.class)) {
-                            TypeToken<?> paramType = parametrizedType.resolveType(Flux.class.getTypeParameters()[0]);
-                            args.add(request.bodyToFlux(paramType)
-                                    .transform(flux -> workScheduler == null ? flux : flux.publishOn(workScheduler))
-                                    .doOnEach(v -> executionContext.apply()));
-                        } else {
-                            throw new IllegalArgumentException(RequestBody.class.getSimpleName() + " only support Mono<T> or Flux<T> type");
-                        }
-                    } else if ((headerAnnotation = parameter.getAnnotation(HeaderParam.class)) != null) {
-                        String name = headerAnnotation.value();
-                        if (name.isEmpty()) {
-                            name = parameter.getName();
-                        }
-                        List<String> params = request.headers(name);
-                        if (params == null || params.isEmpty()) {
-                            if (defaultValue == null) {
-                                args.add(paramConverter.convertValue(Lists.newArrayList(), parametrizedType));
-                            } else {
-                                args.add(paramConverter.convertValue(Lists.newArrayList(defaultValue), parametrizedType));
-                            }
-                        } else {
-                            args.add(paramConverter.convertValue(params, parametrizedType));
-                        }
-                    } else if ((uriParam = parameter.getAnnotation(UriParam.class)) != null) {
-                        String name = uriParam.value();
-                        if (name.isEmpty()) {
-                            name = parameter.getName();
-                        }
-                        ImmutableList<String> params = request.uriParams(name);
-                        if (params == null || params.isEmpty()) {
-                            if (defaultValue == null) {
-                                args.add(paramConverter.convertValue(Lists.newArrayList(), parametrizedType));
-                            } else {
-                                args.add(paramConverter.convertValue(Lists.newArrayList(defaultValue), parametrizedType));
-                            }
-                        } else {
-                            args.add(paramConverter.convertValue(params, parametrizedType));
-                        }
-                    }
-                }
+            Object[] args = new Object[argumentBinders.length];
+            for (int i = 0; i < argumentBinders.length; i++) {
+                args[i] = argumentBinders[i].bind(request, executionContext);
             }
-            Object rawResult = method.invoke(reactiveHandler, args.toArray());
+            Object rawResult = handlerInvoker.invoke(args);
             return ResultUtils.toResult(returnType, rawResult)
                     // This allows the thread subscribing the inner Publisher to get our ExecutionContext
                     .map(res -> {
                         if (res.data() != null) {
-                            Result.Builder copy = res.copy();
                             if (res.data() instanceof Flux) {
-                                copy.data(Flux.from(res.data())
-                                        .doOnSubscribe(s -> executionContext.apply()), res.type());
+                                return res.withData(Flux.from(res.data())
+                                        .doOnSubscribe(s -> executionContext.apply()));
                             } else {
-                                copy.data(Mono.from(res.data())
-                                        .doOnSubscribe(s -> executionContext.apply()), res.type());
+                                return res.withData(Mono.from(res.data())
+                                        .doOnSubscribe(s -> executionContext.apply()));
                             }
-                            return copy.build();
                         }
                         return res;
                     })
                     .doOnSubscribe(s -> executionContext.apply());
-        } catch (InvocationTargetException e) {
-            return Mono.error(e.getTargetException());
         } catch (Throwable e) {
             return Mono.error(e);
         }
     }
 
+    /**
+     * Resolves once how the given handler method parameter is bound from a request.
+     */
+    private ArgumentBinder argumentBinder(Parameter parameter) {
+        TypeToken<?> parameterType = TypeToken.of(parameter.getType());
+        TypeToken<?> parametrizedType = TypeToken.of(parameter.getParameterizedType());
+        if (parameterType.isSupertypeOf(Request.class)) {
+            return this::requestWithMultipartContext;
+        }
+        DefaultValue defaultValueAnnotation = parameter.getAnnotation(DefaultValue.class);
+        ImmutableList<String> defaultValues = defaultValueAnnotation == null ? ImmutableList.of() : ImmutableList.of(defaultValueAnnotation.value());
+        PathParam annotation;
+        HeaderParam headerAnnotation;
+        UriParam uriParam;
+        if ((annotation = parameter.getAnnotation(PathParam.class)) != null) {
+            String name = parameterName(annotation.value(), parameter);
+            return (request, executionContext) -> paramConverter.convertValue(ImmutableList.of(request.pathParam(name)), parametrizedType);
+        } else if (parameter.getAnnotation(RequestBody.class) != null) {
+            if (parameterType.isSupertypeOf(Mono.class)) {
+                TypeToken<?> paramType = parametrizedType.resolveType(Mono.class.getTypeParameters()[0]);
+                return (request, executionContext) -> request.bodyToMono(paramType)
+                        .transform(mono -> workScheduler == null ? mono : mono.publishOn(workScheduler))
+                        .doOnEach(v -> executionContext.apply());
+            } else if (parameterType.isSupertypeOf(Flux.class)) {
+                TypeToken<?> paramType = parametrizedType.resolveType(Flux.class.getTypeParameters()[0]);
+                return (request, executionContext) -> request.bodyToFlux(paramType)
+                        .transform(flux -> workScheduler == null ? flux : flux.publishOn(workScheduler))
+                        .doOnEach(v -> executionContext.apply());
+            } else {
+                return (request, executionContext) -> {
+                    throw new IllegalArgumentException(RequestBody.class.getSimpleName() + " only support Mono<T> or Flux<T> type");
+                };
+            }
+        } else if ((headerAnnotation = parameter.getAnnotation(HeaderParam.class)) != null) {
+            String name = parameterName(headerAnnotation.value(), parameter);
+            return (request, executionContext) -> {
+                List<String> params = request.headers(name);
+                return paramConverter.convertValue(params == null || params.isEmpty() ? defaultValues : params, parametrizedType);
+            };
+        } else if ((uriParam = parameter.getAnnotation(UriParam.class)) != null) {
+            String name = parameterName(uriParam.value(), parameter);
+            return (request, executionContext) -> {
+                ImmutableList<String> params = request.uriParams(name);
+                return paramConverter.convertValue(params == null || params.isEmpty() ? defaultValues : params, parametrizedType);
+            };
+        } else {
+            return (request, executionContext) -> {
+                throw new IllegalArgumentException(String.format("Cannot bind parameter '%s' : it must be a %s or be annotated", parameter.getName(), Request.class.getSimpleName()));
+            };
+        }
+    }
+
+    private static String parameterName(String annotationValue, Parameter parameter) {
+        return annotationValue.isEmpty() ? parameter.getName() : annotationValue;
+    }
+
     private Request requestWithMultipartContext(Request request, ExecutionContext executionContext) {
         return new Request() {
             @Override
@@ -250,6 +245,13 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
                         .doOnEach(v -> executionContext.apply());
             }
 
+            @Override
+            public Flux<Part> streamParts() {
+                return request.streamParts()
+                        .transform(flux -> workScheduler == null ? flux : flux.publishOn(workScheduler))
+                        .doOnEach(v -> executionContext.apply());
+            }
+
             @Override
             public ImmutableMap<String, ImmutableList<String>> uriParams() {
                 return request.uriParams();
@@ -346,6 +348,13 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
                         .transform(mono -> workScheduler == null ? mono : mono.publishOn(workScheduler))
                         .doOnEach(v -> executionContext.apply());
             }
+
+            @Override
+            public Flux<Map.Entry<String, String>> streamFormData() {
+                return request.streamFormData()
+                        .transform(flux -> workScheduler == null ? flux : flux.publishOn(workScheduler))
+                        .doOnEach(v -> executionContext.apply());
+            }
         };
     }
 
@@ -353,4 +362,11 @@ public class RequestMappingSupport implements HandlerSupportFunction<RequestMapp
         LOGGER.info("Will now follow origins {}", originsToMonitor);
         this.originsToMonitor.set(originsToMonitor);
     }
+
+    @FunctionalInterface
+    private interface ArgumentBinder {
+
+        Object bind(Request request, ExecutionContext executionContext) throws Exception;
+
+    }
 }
@@ -9,30 +9,30 @@ import com.liveaction.reactiff.api.server.Result;
 import com.liveaction.reactiff.api.server.annotation.WsMapping;
 import com.liveaction.reactiff.api.server.route.Route;
 import com.liveaction.reactiff.api.server.route.WebSocketRoute;
+import com.liveaction.reactiff.server.internal.RequestSettings;
+import com.liveaction.reactiff.server.internal.routing.RoutingTable;
 import com.liveaction.reactiff.server.internal.utils.FilterUtils;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
-import reactor.netty.http.server.HttpServerRoutes;
 import reactor.netty.http.websocket.WebsocketInbound;
 import reactor.netty.http.websocket.WebsocketOutbound;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.BiFunction;
 
 public class WsMappingSupport implements HandlerSupportFunction<WsMapping, WebSocketRoute> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WsMappingSupport.class);
 
-    private final Function<FilterChain, FilterChain> filterChainer;
+    private final BiFunction<FilterChain, Optional<Route>, FilterChain> filterChainer;
     private final CodecManager codecManager;
     private final Scheduler workScheduler;
 
-    public WsMappingSupport(Function<FilterChain, FilterChain> filterChainer, CodecManager codecManager, Scheduler workScheduler) {
+    public WsMappingSupport(BiFunction<FilterChain, Optional<Route>, FilterChain> filterChainer, CodecManager codecManager, Scheduler workScheduler) {
         this.filterChainer = filterChainer;
         this.codecManager = codecManager;
         this.workScheduler = workScheduler;
@@ -50,29 +50,30 @@ public class WsMappingSupport implements HandlerSupportFunction<WsMapping, WebSo
 
     @Override
     @SuppressWarnings("unchecked")
-    public void register(HttpServerRoutes httpServerRoutes, ReactiveHandler reactiveHandler, WebSocketRoute route) {
-        httpServerRoutes.get(route.path, (req, res) -> {
+    public void register(RoutingTable routingTable, ReactiveHandler reactiveHandler, WebSocketRoute route) {
+        HandlerInvoker handlerInvoker = HandlerInvoker.create(reactiveHandler, route.handlerMethod);
+        Optional<Route> matchingRoute = Optional.of(Route.http(0, HttpMethod.GET, route.path(), route.handlerMethod));
+        routingTable.add(HttpMethod.GET, route.path, (req, res) -> {
             FilterChain chain = workScheduler == null ?
-                    (httpRequest) -> Mono.from(res.sendWebsocket((wsIn, wsOut) -> executeMethod(reactiveHandler, route, wsIn, wsOut)))
+                    (httpRequest) -> Mono.from(res.sendWebsocket((wsIn, wsOut) -> executeMethod(handlerInvoker, wsIn, wsOut)))
                             .then(Mono.fromCallable(() -> Result.ok(Mono.empty(), Void.class)))
-                    : (httpRequest) -> Mono.from(res.sendWebsocket((wsIn, wsOut) -> executeMethod(reactiveHandler, route, wsIn, wsOut)))
+                    : (httpRequest) -> Mono.from(res.sendWebsocket((wsIn, wsOut) -> executeMethod(handlerInvoker, wsIn, wsOut)))
                     .subscribeOn(workScheduler)
                     .then(Mono.fromCallable(() -> Result.ok(Mono.empty(), Void.class)));
 
-            Optional<Route> matchingRoute = Optional.of(Route.http(0, HttpMethod.GET, route.path(), route.handlerMethod));
-            return FilterUtils.applyFilters(req, res, codecManager, filterChainer, chain, matchingRoute, false);
+            // the handler chain is bound to the response, so filters are chained on each websocket upgrade
+            return FilterUtils.applyFilters(req, res, codecManager, filterChainer.apply(chain, matchingRoute), matchingRoute, false, RequestSettings.DEFAULT);
         });
         LOGGER.trace("Registered route {}", route);
     }
 
-    private Publisher<Void> executeMethod(ReactiveHandler reactiveHandler, WebSocketRoute route, WebsocketInbound wsIn, WebsocketOutbound wsOut) {
+    @SuppressWarnings("unchecked")
+    private Publisher<Void> executeMethod(HandlerInvoker handlerInvoker, WebsocketInbound wsIn, WebsocketOutbound wsOut) {
         Publisher<Void> result;
         try {
-            result = (Publisher<Void>) route.handlerMethod.invoke(reactiveHandler, wsIn, wsOut);
-        } catch (IllegalAccessException e) {
+            result = (Publisher<Void>) handlerInvoker.invoke(wsIn, wsOut);
+        } catch (Throwable e) {
             result = Mono.error(e);
-        } catch (InvocationTargetException e) {
-            result = Mono.error(e.getTargetException());
         }
         return result;
     }
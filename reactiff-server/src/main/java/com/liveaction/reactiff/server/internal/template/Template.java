@@ -0,0 +1,116 @@
+package com.liveaction.reactiff.server.internal.template;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A template parsed once into literal and placeholder segments. Placeholders are written {@code {{ name }}}, those
+ * without a value are rendered as is.
+ */
+public final class Template {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\s*\\{\\s*([^{}\\s]+)\\s*}\\s*}");
+
+    private final ImmutableList<Segment> segments;
+    private final int literalLength;
+
+    private Template(ImmutableList<Segment> segments) {
+        this.segments = segments;
+        this.literalLength = segments.stream()
+                .filter(segment -> segment.name == null)
+                .mapToInt(segment -> segment.text.length())
+                .sum();
+    }
+
+    public static Template compile(String text) {
+        Builder builder = new Builder();
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            builder.literal(text.substring(start, matcher.start()));
+            builder.add(new Segment(matcher.group(), matcher.group(1)));
+            start = matcher.end();
+        }
+        builder.literal(text.substring(start));
+        return builder.build();
+    }
+
+    /**
+     * @return a template whose placeholders having a value are replaced by literals
+     */
+    public Template bind(Map<String, String> values) {
+        Builder builder = new Builder();
+        for (Segment segment : segments) {
+            String value = segment.name == null ? null : values.get(segment.name);
+            if (value == null) {
+                builder.add(segment);
+            } else {
+                builder.literal(value);
+            }
+        }
+        return builder.build();
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder rendered = new StringBuilder(literalLength + 16 * segments.size());
+        for (Segment segment : segments) {
+            if (segment.name == null) {
+                rendered.append(segment.text);
+            } else {
+                rendered.append(values.getOrDefault(segment.name, segment.text));
+            }
+        }
+        return rendered.toString();
+    }
+
+    private static final class Segment {
+
+        // the literal text, or the placeholder as written in the template
+        final String text;
+        // the name of the placeholder, null for a literal
+        final String name;
+
+        Segment(String text, String name) {
+            this.text = text;
+            this.name = name;
+        }
+
+    }
+
+    private static final class Builder {
+
+        private final ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+        // adjacent literals are merged
+        private final StringBuilder literal = new StringBuilder();
+
+        void literal(String text) {
+            literal.append(text);
+        }
+
+        void add(Segment segment) {
+            if (segment.name == null) {
+                literal(segment.text);
+            } else {
+                flush();
+                segments.add(segment);
+            }
+        }
+
+        Template build() {
+            flush();
+            return new Template(segments.build());
+        }
+
+        private void flush() {
+            if (literal.length() > 0) {
+                segments.add(new Segment(literal.toString(), null));
+                literal.setLength(0);
+            }
+        }
+
+    }
+
+}
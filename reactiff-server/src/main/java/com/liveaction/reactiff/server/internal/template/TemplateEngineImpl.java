@@ -7,39 +7,37 @@ import reactor.core.publisher.Mono;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class TemplateEngineImpl implements com.liveaction.reactiff.api.server.template.TemplateEngine {
 
+    // templates are read and parsed once
+    private final ConcurrentMap<String, Template> templates = new ConcurrentHashMap<>();
+
     @Override
     public Mono<String> process(String file, ImmutableMap<String, String> map) {
+        return Mono.fromCallable(() -> template(file).render(map));
+    }
+
+    /**
+     * @throws NoSuchElementException when the file is not found
+     */
+    public Template template(String file) {
+        return templates.computeIfAbsent(file, this::load);
+    }
+
+    private Template load(String file) {
         InputStream resource = getClass().getResourceAsStream(file);
-        if (resource != null) {
-            return Mono.just(resource)
-                    .map(inputStream -> {
-                        try {
-                            return CharStreams.toString(new InputStreamReader(resource));
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    })
-                    .map(template -> {
-                        for (Map.Entry<String, String> entry : map.entrySet()) {
-                            template = template.replaceAll("\\{\\s*\\{\\s*" + entry.getKey() + "\\s*}\\s*}", entry.getValue());
-                        }
-                        return template;
-                    })
-                    .doFinally(t -> {
-                        try {
-                            resource.close();
-                        } catch (IOException ignored) {
-                        }
-                    });
-        } else {
-            return Mono.error(new NoSuchElementException(file));
+        if (resource == null) {
+            throw new NoSuchElementException(file);
+        }
+        try (InputStreamReader reader = new InputStreamReader(resource)) {
+            return Template.compile(CharStreams.toString(reader));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 
-
 }
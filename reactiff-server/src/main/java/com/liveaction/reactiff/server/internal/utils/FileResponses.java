@@ -0,0 +1,286 @@
+package com.liveaction.reactiff.server.internal.utils;
+
+import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Writes File and Path results : conditional requests are answered from the file attributes, byte ranges are sent as
+ * partial content.
+ */
+final class FileResponses {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileResponses.class);
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final int MAX_RANGES = 16;
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+
+    private FileResponses() {
+    }
+
+    /**
+     * @param fileRegion whether the file can be sent as is by the transport
+     * @param encoder    encodes the whole file, when it cannot be sent as is
+     */
+    static Mono<Void> send(HttpServerRequest req, HttpServerResponse res, Publisher<?> data, boolean fileRegion, Function<Object, Publisher<ByteBuf>> encoder) {
+        return Mono.from(data)
+                .map(Optional::<Object>of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(item -> {
+                    if (item.isEmpty()) {
+                        return res.send();
+                    }
+                    Path path = item.get() instanceof File ? ((File) item.get()).toPath() : (Path) item.get();
+                    if (!res.status().equals(HttpResponseStatus.OK) || !(req.method().equals(HttpMethod.GET) || req.method().equals(HttpMethod.HEAD))) {
+                        return sendFile(res, path, item.get(), fileRegion, encoder);
+                    }
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        LOGGER.debug("Cannot read attributes of {}", path, e);
+                        return sendFile(res, path, item.get(), fileRegion, encoder);
+                    }
+                    long size = attributes.size();
+                    long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+                    String etag = '"' + Long.toHexString(lastModified) + '-' + Long.toHexString(size) + '"';
+                    res.header(HttpHeaderNames.ETAG, etag)
+                            .header(HttpHeaderNames.LAST_MODIFIED, DateFormatter.format(new Date(lastModified)))
+                            .header(HttpHeaderNames.ACCEPT_RANGES, BYTES_UNIT);
+
+                    if (notModified(req, etag, lastModified)) {
+                        res.responseHeaders().remove(HttpHeaderNames.CONTENT_LENGTH);
+                        return res.status(HttpResponseStatus.NOT_MODIFIED).send();
+                    }
+                    List<long[]> ranges = ranges(req, etag, lastModified, size);
+                    if (ranges == null) {
+                        return sendFile(res, path, item.get(), fileRegion, encoder);
+                    } else if (ranges.isEmpty()) {
+                        return res.status(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                .header(HttpHeaderNames.CONTENT_RANGE, BYTES_UNIT + " */" + size)
+                                .header(HttpHeaderNames.CONTENT_LENGTH, "0")
+                                .send();
+                    }
+                    // the range applies to the file content, not to a compressed representation of it
+                    res.compression(false)
+                            .status(HttpResponseStatus.PARTIAL_CONTENT);
+                    if (ranges.size() == 1) {
+                        long[] range = ranges.get(0);
+                        return Mono.from(res.header(HttpHeaderNames.CONTENT_RANGE, contentRange(range, size))
+                                .header(HttpHeaderNames.CONTENT_LENGTH, Long.toString(range[1] - range[0] + 1))
+                                .sendFile(path, range[0], range[1] - range[0] + 1));
+                    }
+                    return sendMultipart(res, path, ranges, size);
+                });
+    }
+
+    private static Mono<Void> sendFile(HttpServerResponse res, Path path, Object item, boolean fileRegion, Function<Object, Publisher<ByteBuf>> encoder) {
+        if (fileRegion) {
+            return Mono.from(res.sendFile(path));
+        }
+        return Mono.from(res.send(encoder.apply(item)));
+    }
+
+    private static Mono<Void> sendMultipart(HttpServerResponse res, Path path, List<long[]> ranges, long size) {
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        String contentType = res.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+        List<String> partHeaders = Lists.newArrayListWithCapacity(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            StringBuilder partHeader = new StringBuilder("\r\n--").append(boundary).append("\r\n");
+            if (contentType != null) {
+                partHeader.append(HttpHeaderNames.CONTENT_TYPE).append(": ").append(contentType).append("\r\n");
+            }
+            partHeader.append(HttpHeaderNames.CONTENT_RANGE).append(": ").append(contentRange(range, size)).append("\r\n\r\n");
+            partHeaders.add(partHeader.toString());
+            contentLength += partHeader.length() + range[1] - range[0] + 1;
+        }
+        String end = "\r\n--" + boundary + "--\r\n";
+        contentLength += end.length();
+
+        Flux<ByteBuf> body = Flux.range(0, ranges.size())
+                .concatMap(i -> Flux.concat(
+                        Mono.fromSupplier(() -> ByteBufUtil.writeAscii(res.alloc(), partHeaders.get(i))),
+                        readRange(res.alloc(), path, ranges.get(i))))
+                .concatWith(Mono.fromSupplier(() -> ByteBufUtil.writeAscii(res.alloc(), end)));
+        return Mono.from(res.header(HttpHeaderNames.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary)
+                .header(HttpHeaderNames.CONTENT_LENGTH, Long.toString(contentLength))
+                .send(body));
+    }
+
+    /**
+     * Reads the ranges of a multipart response, which are sent interleaved with the part headers. The reads block, they
+     * are done on the bounded elastic scheduler and not on the event loop.
+     */
+    private static Flux<ByteBuf> readRange(ByteBufAllocator allocator, Path path, long[] range) {
+        return Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+                channel -> Flux.<ByteBuf, Long>generate(() -> range[0], (position, sink) -> {
+                    int length = (int) Math.min(READ_CHUNK_SIZE, range[1] + 1 - position);
+                    ByteBuf buffer = allocator.buffer(length);
+                    try {
+                        int read = buffer.writeBytes(channel, position, length);
+                        if (read < 0) {
+                            buffer.release();
+                            sink.error(new EOFException("File " + path + " was truncated while being sent"));
+                            return position;
+                        }
+                        sink.next(buffer);
+                        if (position + read > range[1]) {
+                            sink.complete();
+                        }
+                    } catch (IOException e) {
+                        buffer.release();
+                        sink.error(e);
+                    }
+                    return position + buffer.readableBytes();
+                }),
+                channel -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        LOGGER.debug("Cannot close {}", path, e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static String contentRange(long[] range, long size) {
+        return BYTES_UNIT + ' ' + range[0] + '-' + range[1] + '/' + size;
+    }
+
+    /**
+     * If-None-Match takes precedence over If-Modified-Since.
+     */
+    private static boolean notModified(HttpServerRequest req, String etag, long lastModified) {
+        String ifNoneMatch = req.requestHeaders().get(HttpHeaderNames.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                // weak comparison
+                if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = req.requestHeaders().get(HttpHeaderNames.IF_MODIFIED_SINCE);
+        Date date = ifModifiedSince == null ? null : DateFormatter.parseHttpDate(ifModifiedSince);
+        return date != null && lastModified <= date.getTime();
+    }
+
+    /**
+     * @return the satisfiable ranges, inclusive, an empty list if none is, or null if the whole file must be sent.
+     * Overlapping or adjacent ranges are coalesced, so that no byte is sent twice
+     */
+    private static List<long[]> ranges(HttpServerRequest req, String etag, long lastModified, long size) {
+        String range = req.requestHeaders().get(HttpHeaderNames.RANGE);
+        if (range == null || !range.startsWith(BYTES_UNIT + "=") || !ifRange(req, etag, lastModified)) {
+            return null;
+        }
+        String[] specs = range.substring(BYTES_UNIT.length() + 1).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = Lists.newArrayListWithCapacity(specs.length);
+        try {
+            for (String spec : specs) {
+                String trimmed = spec.trim();
+                int dash = trimmed.indexOf('-');
+                if (dash < 0) {
+                    return null;
+                }
+                long first;
+                long last;
+                if (dash == 0) {
+                    long suffixLength = Long.parseLong(trimmed.substring(1));
+                    if (suffixLength < 0) {
+                        return null;
+                    }
+                    first = Math.max(0, size - suffixLength);
+                    last = size - 1;
+                } else {
+                    first = Long.parseLong(trimmed.substring(0, dash));
+                    last = dash == trimmed.length() - 1 ? Long.MAX_VALUE : Long.parseLong(trimmed.substring(dash + 1));
+                    if (last < first) {
+                        return null;
+                    }
+                    last = Math.min(last, size - 1);
+                }
+                if (first < size && first <= last) {
+                    ranges.add(new long[]{first, last});
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return coalesce(ranges);
+    }
+
+    /**
+     * @return the ranges in the requested order if none overlap, otherwise the ranges merged in ascending order
+     */
+    private static List<long[]> coalesce(List<long[]> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        List<long[]> sorted = Lists.newArrayList(ranges);
+        sorted.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> coalesced = Lists.newArrayListWithCapacity(sorted.size());
+        long[] current = sorted.get(0);
+        for (long[] range : sorted.subList(1, sorted.size())) {
+            if (range[0] <= current[1] + 1) {
+                current = new long[]{current[0], Math.max(current[1], range[1])};
+            } else {
+                coalesced.add(current);
+                current = range;
+            }
+        }
+        coalesced.add(current);
+        return coalesced.size() == ranges.size() ? ranges : coalesced;
+    }
+
+    /**
+     * The ranges are only sent if the file is still the one identified by If-Range, which has to be a strong validator.
+     */
+    private static boolean ifRange(HttpServerRequest req, String etag, long lastModified) {
+        String ifRange = req.requestHeaders().get(HttpHeaderNames.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        Date date = DateFormatter.parseHttpDate(ifRange);
+        return date != null && date.getTime() == lastModified;
+    }
+
+}
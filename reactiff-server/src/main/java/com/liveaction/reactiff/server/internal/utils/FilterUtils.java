@@ -1,14 +1,21 @@
 package com.liveaction.reactiff.server.internal.utils;
 
+import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.CodecManager;
+import com.liveaction.reactiff.api.server.AnnotationReactiveFilter;
 import com.liveaction.reactiff.api.server.FilterChain;
 import com.liveaction.reactiff.api.server.ReactiveFilter;
 import com.liveaction.reactiff.api.server.Request;
 import com.liveaction.reactiff.api.server.Result;
 import com.liveaction.reactiff.api.server.route.Route;
 import com.liveaction.reactiff.server.internal.RequestImpl;
+import com.liveaction.reactiff.server.internal.RequestSettings;
 import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.ssl.SslHandler;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,13 +23,19 @@ import reactor.core.publisher.Mono;
 import reactor.netty.http.server.HttpServerRequest;
 import reactor.netty.http.server.HttpServerResponse;
 
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.nio.file.Path;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class FilterUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FilterUtils.class);
 
+    private static final TypeToken<File> FILE = TypeToken.of(File.class);
+    private static final TypeToken<Path> PATH = TypeToken.of(Path.class);
+
     private FilterUtils() {
     }
 
@@ -30,16 +43,21 @@ public final class FilterUtils {
     public static Publisher<Void> applyFilters(HttpServerRequest req,
                                                HttpServerResponse res,
                                                CodecManager codecManager,
-                                               Function<FilterChain, FilterChain> chainFunction,
-                                               FilterChain chain,
+                                               FilterChain filterChain,
                                                Optional<Route> matchingRoute,
-                                               boolean writeErrorStacktrace) {
-        Request request = new RequestImpl(req, codecManager, matchingRoute);
-        FilterChain filterChain = chainFunction.apply(chain);
+                                               boolean writeErrorStacktrace,
+                                               RequestSettings requestSettings) {
+        Request request = new RequestImpl(req, codecManager, matchingRoute, requestSettings);
         Mono<Result<?>> enrichedResult = filterChain.chain(request)
                 .onErrorResume(throwable -> {
-                    int status = 500;
-                    LOGGER.error("Unexpected error for {}", req.uri(), throwable);
+                    int status;
+                    if (throwable instanceof TooLongFrameException) {
+                        status = HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code();
+                        LOGGER.debug("Request too large for {}: {}", req.uri(), throwable.getMessage());
+                    } else {
+                        status = 500;
+                        LOGGER.error("Unexpected error for {}", req.uri(), throwable);
+                    }
                     String message = throwable.getMessage();
                     if (message == null) {
                         message = HttpResponseStatus.INTERNAL_SERVER_ERROR.reasonPhrase();
@@ -60,11 +78,14 @@ public final class FilterUtils {
                         return Mono.empty();
                     }
                     HttpServerResponse httpServerResponse = res.status(result.status());
-                    result.headers().forEach(res::addHeader);
+                    result.headers().addTo(res.responseHeaders());
                     result.cookies().forEach(res::addCookie);
                     Publisher<?> data = result.data();
                     if (data == null) {
                         return Mono.from(httpServerResponse.send());
+                    } else if (isFile(result.type())) {
+                        return FileResponses.send(req, httpServerResponse, data, !(requestSettings.compress() && acceptsCompression(req)) && supportsFileRegion(res),
+                                file -> encodeFile(req, res, codecManager, result, file));
                     } else {
                         return Mono.from(httpServerResponse
                                 .send(encodeResult(req, res, codecManager, result)));
@@ -72,12 +93,75 @@ public final class FilterUtils {
                 });
     }
 
+    private static boolean isFile(TypeToken<?> typeToken) {
+        return typeToken != null && (FILE.isSupertypeOf(typeToken) || PATH.isSupertypeOf(typeToken));
+    }
+
+    /**
+     * A {@link io.netty.channel.FileRegion} is written as is by the transport : encrypted, compressed or HTTP/2
+     * responses need the file to be read, which is left to the file codec.
+     */
+    private static boolean supportsFileRegion(HttpServerResponse res) {
+        AtomicBoolean supported = new AtomicBoolean();
+        res.withConnection(connection -> supported.set(!(connection.channel() instanceof Http2StreamChannel)
+                && connection.channel().pipeline().get(SslHandler.class) == null));
+        return supported.get();
+    }
+
+    /**
+     * A compressing server only compresses the responses of clients accepting a content coding other than identity.
+     */
+    private static boolean acceptsCompression(HttpServerRequest req) {
+        for (String acceptEncoding : req.requestHeaders().getAll(HttpHeaderNames.ACCEPT_ENCODING)) {
+            for (String coding : acceptEncoding.split(",")) {
+                int parameters = coding.indexOf(';');
+                String name = (parameters < 0 ? coding : coding.substring(0, parameters)).trim();
+                if (!name.isEmpty() && !name.equalsIgnoreCase("identity")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Publisher<ByteBuf> encodeFile(HttpServerRequest req, HttpServerResponse res, CodecManager codecManager, Result<T> filteredResult, Object file) {
+        return codecManager.encode(req.requestHeaders(), res.responseHeaders(), Mono.just((T) file), filteredResult.type());
+    }
+
     private static <T> Publisher<ByteBuf> encodeResult(HttpServerRequest req, HttpServerResponse res, CodecManager codecManager, Result<T> filteredResult) {
         return codecManager.encode(req.requestHeaders(), res.responseHeaders(), filteredResult.data(), filteredResult.type());
     }
 
-    public static FilterChain chain(ReactiveFilter element, FilterChain filterChain) {
+    /**
+     * Chains the given filter before filterChain. When the route is known, {@link AnnotationReactiveFilter}s are resolved
+     * against its handler method once : they are left out of the chain when the annotation is absent. Those overriding
+     * {@link AnnotationReactiveFilter#filter} are chained as any other filter.
+     */
+    public static FilterChain chain(ReactiveFilter element, FilterChain filterChain, Optional<Route> route) {
+        if (element instanceof AnnotationReactiveFilter && !overridesFilter(element)) {
+            return annotationChain((AnnotationReactiveFilter<?>) element, filterChain, route);
+        }
         return (request) -> element.filter(request, filterChain);
     }
 
+    private static boolean overridesFilter(ReactiveFilter element) {
+        try {
+            return element.getClass().getMethod("filter", Request.class, FilterChain.class).getDeclaringClass() != AnnotationReactiveFilter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private static <T extends Annotation> FilterChain annotationChain(AnnotationReactiveFilter<T> element, FilterChain filterChain, Optional<Route> route) {
+        if (route.isEmpty()) {
+            return filterChain;
+        }
+        T annotation = route.get().annotation(element.annotation());
+        if (annotation == null) {
+            return filterChain;
+        }
+        return (request) -> element.annotatedFilter(request, filterChain, annotation);
+    }
+
 }
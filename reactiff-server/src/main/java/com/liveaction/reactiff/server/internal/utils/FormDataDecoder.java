@@ -0,0 +1,125 @@
+package com.liveaction.reactiff.server.internal.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.ByteProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental decoder of an application/x-www-form-urlencoded body : fields are decoded as the body is received, only
+ * the field being received is kept.
+ */
+public final class FormDataDecoder {
+
+    private static final ByteProcessor SEPARATORS = b -> b != '&' && b != ';';
+
+    private final Charset charset;
+    private final int maxFields;
+    private final long maxSize;
+    // the beginning of the field being received
+    private final ByteBuf pending = Unpooled.buffer(0);
+    private long size;
+    private int fields;
+
+    private FormDataDecoder(Charset charset, int maxFields, long maxSize) {
+        this.charset = charset;
+        this.maxFields = maxFields;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param maxFields the max number of fields, -1 for no limit
+     * @param maxSize   the max size of the body, -1 for no limit
+     */
+    public static Flux<Map.Entry<String, String>> decode(Flux<ByteBuf> body, Charset charset, int maxFields, long maxSize) {
+        return Flux.defer(() -> {
+            FormDataDecoder decoder = new FormDataDecoder(charset, maxFields, maxSize);
+            // fields are decoded as each buffer is received, before it is released
+            return body.map(decoder::onNext)
+                    .concatWith(Mono.fromSupplier(decoder::onComplete))
+                    .concatMapIterable(entries -> entries)
+                    .doFinally(signalType -> decoder.pending.release());
+        });
+    }
+
+    public static Mono<ImmutableMap<String, ImmutableList<String>>> collect(Flux<Map.Entry<String, String>> entries) {
+        return entries.collect(LinkedHashMap<String, ImmutableList.Builder<String>>::new,
+                (map, entry) -> map.computeIfAbsent(entry.getKey(), key -> ImmutableList.builder()).add(entry.getValue()))
+                .map(map -> {
+                    ImmutableMap.Builder<String, ImmutableList<String>> builder = ImmutableMap.builderWithExpectedSize(map.size());
+                    map.forEach((key, values) -> builder.put(key, values.build()));
+                    return builder.build();
+                });
+    }
+
+    private List<Map.Entry<String, String>> onNext(ByteBuf byteBuf) {
+        size += byteBuf.readableBytes();
+        if (maxSize >= 0 && size > maxSize) {
+            throw new TooLongFrameException("Form data exceeds " + maxSize + " bytes");
+        }
+        List<Map.Entry<String, String>> entries = null;
+        int start = byteBuf.readerIndex();
+        int end = byteBuf.writerIndex();
+        int separator;
+        while (start < end && (separator = byteBuf.forEachByte(start, end - start, SEPARATORS)) >= 0) {
+            if (entries == null) {
+                entries = new ArrayList<>();
+            }
+            if (pending.isReadable()) {
+                pending.writeBytes(byteBuf, start, separator - start);
+                addField(entries, pending, pending.readerIndex(), pending.readableBytes());
+                pending.clear();
+            } else {
+                addField(entries, byteBuf, start, separator - start);
+            }
+            start = separator + 1;
+        }
+        pending.writeBytes(byteBuf, start, end - start);
+        return entries == null ? Collections.emptyList() : entries;
+    }
+
+    private List<Map.Entry<String, String>> onComplete() {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(1);
+        addField(entries, pending, pending.readerIndex(), pending.readableBytes());
+        return entries;
+    }
+
+    private void addField(List<Map.Entry<String, String>> entries, ByteBuf buffer, int index, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (maxFields >= 0 && ++fields > maxFields) {
+            throw new TooLongFrameException("Form data exceeds " + maxFields + " fields");
+        }
+        String field = buffer.toString(index, length, charset);
+        // like QueryStringDecoder, leading '=' are skipped
+        int nameStart = 0;
+        while (nameStart < field.length() && field.charAt(nameStart) == '=') {
+            nameStart++;
+        }
+        if (nameStart == field.length()) {
+            return;
+        }
+        int equals = field.indexOf('=', nameStart);
+        if (equals < 0) {
+            entries.add(Maps.immutableEntry(QueryStringDecoder.decodeComponent(field.substring(nameStart), charset), ""));
+        } else {
+            entries.add(Maps.immutableEntry(QueryStringDecoder.decodeComponent(field.substring(nameStart, equals), charset),
+                    QueryStringDecoder.decodeComponent(field.substring(equals + 1), charset)));
+        }
+    }
+
+}
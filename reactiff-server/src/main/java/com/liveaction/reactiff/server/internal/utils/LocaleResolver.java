@@ -0,0 +1,70 @@
+package com.liveaction.reactiff.server.internal.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Resolves the locale of an Accept-Language header against the supported locales. The resolutions are cached by header
+ * value, the same few values being sent by most clients.
+ */
+public final class LocaleResolver {
+
+    private static final int CACHE_SIZE = 1024;
+
+    public static final LocaleResolver DEFAULT = new LocaleResolver(ImmutableList.copyOf(Locale.getAvailableLocales()));
+
+    private final ImmutableList<Locale> supportedLocales;
+    private final Cache<String, Resolution> resolutions = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+    public LocaleResolver(Collection<Locale> supportedLocales) {
+        this.supportedLocales = ImmutableList.copyOf(supportedLocales);
+    }
+
+    /**
+     * @param acceptLanguage the Accept-Language header, null when missing
+     */
+    public Resolution resolve(String acceptLanguage) {
+        if (acceptLanguage == null) {
+            return new Resolution(ImmutableList.of(), Optional.empty());
+        }
+        Resolution resolution = resolutions.getIfPresent(acceptLanguage);
+        if (resolution == null) {
+            // parsed outside of the cache loader so that a malformed header fails with an IllegalArgumentException
+            ImmutableList<Locale.LanguageRange> languageRanges = ImmutableList.copyOf(Locale.LanguageRange.parse(acceptLanguage));
+            List<Locale> locales = Locale.filter(languageRanges, supportedLocales);
+            resolution = new Resolution(languageRanges, locales.stream().findFirst());
+            resolutions.put(acceptLanguage, resolution);
+        }
+        return resolution;
+    }
+
+    public static final class Resolution {
+
+        private final ImmutableList<Locale.LanguageRange> languageRanges;
+        private final Optional<Locale> locale;
+
+        private Resolution(ImmutableList<Locale.LanguageRange> languageRanges, Optional<Locale> locale) {
+            this.languageRanges = languageRanges;
+            this.locale = locale;
+        }
+
+        public ImmutableList<Locale.LanguageRange> languageRanges() {
+            return languageRanges;
+        }
+
+        /**
+         * @return the preferred supported locale, empty when none matches
+         */
+        public Optional<Locale> locale() {
+            return locale;
+        }
+
+    }
+
+}
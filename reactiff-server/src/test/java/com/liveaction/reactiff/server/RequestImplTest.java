@@ -2,7 +2,11 @@ package com.liveaction.reactiff.server;
 
 import com.google.common.collect.ImmutableList;
 import com.liveaction.reactiff.server.internal.RequestImpl;
+import com.liveaction.reactiff.server.internal.RequestSettings;
+import com.liveaction.reactiff.server.internal.utils.LocaleResolver;
 import com.liveaction.reactiff.server.rules.WithCodecManager;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMethod;
 import org.assertj.core.api.Assertions;
 import org.junit.ClassRule;
@@ -10,6 +14,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import reactor.netty.http.server.HttpServerRequest;
 
+import java.util.Locale;
 import java.util.Optional;
 
 public final class RequestImplTest {
@@ -96,4 +101,22 @@ public final class RequestImplTest {
         Assertions.assertThat(request.pathParam("id")).isEqualTo("a:partially:encoded/path");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldResolveLocaleAgainstSupportedLocales() {
+        HttpServerRequest httpServerRequest = Mockito.mock(HttpServerRequest.class);
+        Mockito.when(httpServerRequest.method()).thenReturn(new HttpMethod("GET"));
+        Mockito.when(httpServerRequest.uri()).thenReturn("/test");
+        Mockito.when(httpServerRequest.requestHeaders()).thenReturn(new DefaultHttpHeaders().add(HttpHeaderNames.ACCEPT_LANGUAGE, "it,fr;q=0.8,en;q=0.5"));
+        LocaleResolver localeResolver = new LocaleResolver(ImmutableList.of(Locale.ENGLISH, Locale.FRENCH));
+
+        RequestImpl request = new RequestImpl(httpServerRequest, withCodecManager.codecManager, Optional.empty(),
+                new RequestSettings(false, MultipartConfig.DEFAULT, FormDataConfig.DEFAULT, localeResolver));
+        Assertions.assertThat(request.getLocale()).isEqualTo(Locale.FRENCH);
+        Assertions.assertThat(request.getLanguageRanges())
+                .extracting(Locale.LanguageRange::getRange)
+                .containsExactly("it", "fr", "en");
+        Assertions.assertThat(localeResolver.resolve("it,fr;q=0.8,en;q=0.5"))
+                .isSameAs(localeResolver.resolve("it,fr;q=0.8,en;q=0.5"));
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.liveaction.reactiff.server.general;
+
+import com.liveaction.reactiff.server.general.example.FileTransferController;
+import com.liveaction.reactiff.server.rules.WithCodecManager;
+import com.liveaction.reactiff.server.rules.WithReactiveServer;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class FileRegionServerTest {
+
+    /**
+     * Counts the file regions written to the socket.
+     */
+    @ChannelHandler.Sharable
+    private static final class FileRegionCounter extends ChannelOutboundHandlerAdapter {
+
+        private final AtomicInteger fileRegions = new AtomicInteger();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof FileRegion) {
+                fileRegions.incrementAndGet();
+            }
+            super.write(ctx, msg, promise);
+        }
+    }
+
+    private static final FileRegionCounter FILE_REGION_COUNTER = new FileRegionCounter();
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @ClassRule
+    public static WithCodecManager withCodecManager = new WithCodecManager();
+
+    // responses of a compressing server are never written as file regions by reactor-netty
+    @ClassRule
+    public static WithReactiveServer withReactiveServer = new WithReactiveServer(withCodecManager, builder -> builder
+            .compress(false)
+            .configure(httpServer -> httpServer.doOnChannelInit((observer, channel, address) -> channel.pipeline().addFirst(FILE_REGION_COUNTER))));
+
+    private FileTransferController fileTransferController;
+
+    @Before
+    public void setUp() throws Exception {
+        fileTransferController = new FileTransferController(temporaryFolder.newFolder().toPath());
+        withReactiveServer.withHandler(fileTransferController);
+        FILE_REGION_COUNTER.fileRegions.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        withReactiveServer.removeHandler(fileTransferController);
+    }
+
+    @Test
+    public void shouldSendFileAsFileRegion() {
+        StepVerifier.create(withReactiveServer.httpClient()
+                        .get()
+                        .uri("/download/file")
+                        .responseSingle((response, body) -> body.asString()))
+                .expectNext("test file")
+                .verifyComplete();
+        assertThat(FILE_REGION_COUNTER.fileRegions).hasValue(1);
+    }
+
+    @Test
+    public void shouldSendFileAsFileRegionToClientAcceptingCompression() {
+        StepVerifier.create(withReactiveServer.httpClient()
+                        .headers(httpHeaders -> httpHeaders.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip, deflate"))
+                        .get()
+                        .uri("/download/path")
+                        .responseSingle((response, body) -> body.asString()
+                                .map(content -> response.responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING) + " " + content)))
+                .expectNext("null test file")
+                .verifyComplete();
+        assertThat(FILE_REGION_COUNTER.fileRegions).hasValue(1);
+    }
+
+}
@@ -1,14 +1,20 @@
 package com.liveaction.reactiff.server.general;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Files;
 import com.google.common.reflect.TypeToken;
 import com.liveaction.reactiff.api.codec.Body;
 import com.liveaction.reactiff.server.DefaultFilters;
+import com.liveaction.reactiff.server.FormDataConfig;
+import com.liveaction.reactiff.server.MultipartConfig;
 import com.liveaction.reactiff.server.general.example.AuthFilter;
+import com.liveaction.reactiff.server.general.example.ConflictController;
 import com.liveaction.reactiff.server.general.example.FileTransferController;
+import com.liveaction.reactiff.server.general.example.LimitedMultipartController;
 import com.liveaction.reactiff.server.general.example.TestController;
 import com.liveaction.reactiff.server.mock.Pojo;
 import com.liveaction.reactiff.server.rules.HttpException;
@@ -16,10 +22,14 @@ import com.liveaction.reactiff.server.rules.ReactorUtils;
 import com.liveaction.reactiff.server.rules.WithCodecManager;
 import com.liveaction.reactiff.server.rules.WithReactiveServer;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.apache.commons.io.FileUtils;
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Ignore;
@@ -27,6 +37,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
 import reactor.netty.http.client.HttpClientResponse;
 import reactor.netty.http.client.PrematureCloseException;
 import reactor.test.StepVerifier;
@@ -34,11 +45,14 @@ import reactor.test.StepVerifier;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -76,16 +90,43 @@ public final class ReactiveHttpServerTest {
             .withFilter(new AuthFilter())
             .withHandler(new TestController());
 
+    private static final String MULTIPART_BOUNDARY = "reactiff-boundary";
+    private static final Path STORAGE_DIRECTORY = createStorageDirectory();
+
+    @ClassRule
+    public static WithReactiveServer withLimitedServer = new WithReactiveServer(withCodecManager, builder -> builder
+            .multipart(MultipartConfig.DEFAULT
+                    .withStorageDirectory(STORAGE_DIRECTORY)
+                    .withMaxPartSize(200 * 1024)
+                    .withMaxTotalSize(300 * 1024))
+            .formData(FormDataConfig.DEFAULT.withMaxSize(16 * 1024)))
+            .withHandler(new LimitedMultipartController(STORAGE_DIRECTORY));
+
+    private static Path createStorageDirectory() {
+        try {
+            return java.nio.file.Files.createTempDirectory("reactiff-storage");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         tmpFolder = temporaryFolder.newFolder().toPath();
         fileTransferController = new FileTransferController(tmpFolder);
         withReactiveServer.withHandler(fileTransferController);
+        withLimitedServer.withHandler(fileTransferController);
     }
 
     @After
     public void tearDown() throws Exception {
         withReactiveServer.removeHandler(fileTransferController);
+        withLimitedServer.removeHandler(fileTransferController);
+    }
+
+    @AfterClass
+    public static void deleteStorageDirectory() throws IOException {
+        FileUtils.deleteDirectory(STORAGE_DIRECTORY.toFile());
     }
 
     @Test
@@ -130,6 +171,159 @@ public final class ReactiveHttpServerTest {
                 .verifyComplete();
     }
 
+    @Test
+    public void shouldDownloadFileRange() {
+        StepVerifier.create(withReactiveServer.httpClient()
+                        .headers(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-"))
+                        .get()
+                        .uri("/download/file")
+                        .responseSingle((response, body) -> body.asString()
+                                .map(content -> response.status().code() + " " + response.responseHeaders().get(HttpHeaderNames.CONTENT_RANGE) + " " + content)))
+                .expectNext("206 bytes 5-8/9 file")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldDownloadFileRanges() {
+        StepVerifier.create(withReactiveServer.httpClient()
+                        .headers(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=0-3,5-"))
+                        .get()
+                        .uri("/download/file")
+                        .responseSingle((response, body) -> body.asString()
+                                .map(content -> {
+                                    String contentType = response.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+                                    String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+                                    assertThat(response.status().code()).isEqualTo(206);
+                                    assertThat(response.responseHeaders().getInt(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(content.length());
+                                    return content.replace(boundary, "boundary");
+                                })))
+                .expectNext("\r\n--boundary\r\ncontent-type: text/csv\r\ncontent-range: bytes 0-3/9\r\n\r\ntest" +
+                        "\r\n--boundary\r\ncontent-type: text/csv\r\ncontent-range: bytes 5-8/9\r\n\r\nfile" +
+                        "\r\n--boundary--\r\n")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldNotSendUnmodifiedFile() {
+        String etag = withReactiveServer.httpClient()
+                .get()
+                .uri("/download/path")
+                .responseSingle((response, body) -> body.then(Mono.just(response.responseHeaders().get(HttpHeaderNames.ETAG))))
+                .block();
+        assertThat(etag).isNotNull();
+
+        StepVerifier.create(withReactiveServer.httpClient()
+                        .headers(httpHeaders -> httpHeaders.set(HttpHeaderNames.IF_NONE_MATCH, etag))
+                        .get()
+                        .uri("/download/path")
+                        .response()
+                        .map(response -> response.status().code()))
+                .expectNext(304)
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldDownloadSuffixRange() {
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=-4")))
+                .expectNext("206 bytes 5-8/9 file")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldCoalesceOverlappingRanges() {
+        String range = "bytes=" + String.join(",", Collections.nCopies(16, "0-"));
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, range)))
+                .expectNext("206 bytes 0-8/9 test file")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-6,0-2,2-4")))
+                .expectNext("206 bytes 0-6/9 test fi")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=6-,0-3,2-4"))
+                        .map(content -> content.replaceAll("--[0-9a-f]+", "--boundary")))
+                .expectNext("206 null \r\n--boundary\r\ncontent-type: text/csv\r\ncontent-range: bytes 0-4/9\r\n\r\ntest " +
+                        "\r\n--boundary\r\ncontent-type: text/csv\r\ncontent-range: bytes 6-8/9\r\n\r\nile" +
+                        "\r\n--boundary--\r\n")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldRejectUnsatisfiableRange() {
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=9-,20-30")))
+                .expectNext("416 bytes */9 ")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldSendWholeFileForMalformedRange() {
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=a-b")))
+                .expectNext("200 null test file")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-2")))
+                .expectNext("200 null test file")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "lines=1-2")))
+                .expectNext("200 null test file")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldSendRangeOnlyForCurrentIfRange() {
+        HttpHeaders fileHeaders = withReactiveServer.httpClient()
+                .get()
+                .uri("/download/file")
+                .responseSingle((response, body) -> body.then(Mono.just(response.responseHeaders())))
+                .block();
+        String etag = fileHeaders.get(HttpHeaderNames.ETAG);
+        String lastModified = fileHeaders.get(HttpHeaderNames.LAST_MODIFIED);
+
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-").set(HttpHeaderNames.IF_RANGE, etag)))
+                .expectNext("206 bytes 5-8/9 file")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-").set(HttpHeaderNames.IF_RANGE, lastModified)))
+                .expectNext("206 bytes 5-8/9 file")
+                .verifyComplete();
+        // a stale or weak validator gets the whole file
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-").set(HttpHeaderNames.IF_RANGE, "\"stale\"")))
+                .expectNext("200 null test file")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-").set(HttpHeaderNames.IF_RANGE, "W/" + etag)))
+                .expectNext("200 null test file")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.RANGE, "bytes=5-").set(HttpHeaderNames.IF_RANGE, "Thu, 01 Jan 1970 00:00:00 GMT")))
+                .expectNext("200 null test file")
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldNotSendFileUnmodifiedSince() {
+        String lastModified = withReactiveServer.httpClient()
+                .get()
+                .uri("/download/file")
+                .responseSingle((response, body) -> body.then(Mono.just(response.responseHeaders().get(HttpHeaderNames.LAST_MODIFIED))))
+                .block();
+        assertThat(lastModified).isNotNull();
+
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified)))
+                .expectNext("304 null ")
+                .verifyComplete();
+        StepVerifier.create(downloadFile(httpHeaders -> httpHeaders.set(HttpHeaderNames.IF_MODIFIED_SINCE, "Thu, 01 Jan 1970 00:00:00 GMT")))
+                .expectNext("200 null test file")
+                .verifyComplete();
+    }
+
+    /**
+     * @return the status, Content-Range header and body of the download of the test file
+     */
+    private static Mono<String> downloadFile(Consumer<HttpHeaders> requestHeaders) {
+        return withReactiveServer.httpClient()
+                .headers(requestHeaders)
+                .get()
+                .uri("/download/file")
+                .responseSingle((response, body) -> body.asString()
+                        .defaultIfEmpty("")
+                        .map(content -> response.status().code() + " " + response.responseHeaders().get(HttpHeaderNames.CONTENT_RANGE) + " " + content));
+    }
+
     @Test
     public void shouldReceiveStrings() {
         StepVerifier.create(withReactiveServer.httpClient()
@@ -521,16 +715,38 @@ public final class ReactiveHttpServerTest {
 
     @Test
     public void shouldListAllRoutesWhenNoRouteMatch() throws IOException {
-        StepVerifier.create(withReactiveServer.httpClient()
+        StepVerifier.create(notFoundPage())
+                .expectNext(Files.asCharSource(new File(getClass().getResource("/expected/not-found.txt").getFile()), Charsets.UTF_8).read())
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldListRoutesAddedAfterStartWhenNoRouteMatch() {
+        ConflictController conflictController = new ConflictController();
+        withReactiveServer.withHandler(conflictController);
+        try {
+            StepVerifier.create(notFoundPage())
+                    .assertNext(page -> assertThat(page)
+                            .contains("GET  /conflict/test")
+                            .contains("=> ConflictController.conflixtTest(Request request)"))
+                    .verifyComplete();
+        } finally {
+            withReactiveServer.removeHandler(conflictController);
+        }
+        StepVerifier.create(notFoundPage())
+                .assertNext(page -> assertThat(page).doesNotContain("/conflict/"))
+                .verifyComplete();
+    }
+
+    private static Mono<String> notFoundPage() {
+        return withReactiveServer.httpClient()
                 .headers(httpHeaders -> httpHeaders.set(HttpHeaderNames.ACCEPT, "text/plain"))
                 .get()
                 .uri("/yes_not_exists")
                 .responseSingle((httpClientResponse, byteBufFlux) -> {
                     assertThat(httpClientResponse.status().code()).isEqualTo(404);
                     return withCodecManager.codecManager.decodeAsMono(String.class).apply(httpClientResponse, byteBufFlux);
-                })
-        ).expectNext(Files.asCharSource(new File(getClass().getResource("/expected/not-found.txt").getFile()), Charsets.UTF_8).read())
-                .verifyComplete();
+                });
     }
 
     @Test
@@ -705,6 +921,60 @@ public final class ReactiveHttpServerTest {
                 .verify();
     }
 
+    @Test
+    public void shouldStreamFormData() {
+        StepVerifier.create(withReactiveServer.httpClient()
+                .post()
+                .uri("/form")
+                .sendForm((req, form) -> form.multipart(false)
+                        .attr("att1", "val1")
+                        .attr("att2", "val 2&")
+                        .attr("att1", "val3"))
+                .response(withCodecManager.checkErrorAndDecodeAsFlux(String.class)))
+                .expectNext("att1=val1")
+                .expectNext("att2=val 2&")
+                .expectNext("att1=val3")
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldRejectFormDataAboveDefaultMaxFields() {
+        StepVerifier.create(postForm(withReactiveServer, "/form/count", false, Strings.repeat("field=value&", 1023) + "field=value"))
+                .expectNext("200 1024")
+                .verifyComplete();
+        StepVerifier.create(postForm(withReactiveServer, "/form/count", false, Strings.repeat("field=value&", 1024) + "field=value"))
+                .assertNext(response -> assertThat(response).startsWith("413 ").contains("Form data exceeds 1024 fields"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldRejectFormDataAboveMaxSizeFromContentLength() {
+        // the body is shorter than announced : only rejecting from the Content-Length answers without waiting for the rest
+        StepVerifier.create(withLimitedServer.httpClient()
+                        .headers(headers -> headers
+                                .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED)
+                                .set(HttpHeaderNames.CONTENT_LENGTH, 32 * 1024))
+                        .post()
+                        .uri("/limited/form")
+                        .send(ByteBufFlux.fromString(Mono.just("field=value")))
+                        .responseSingle((response, content) -> Mono.just(response.status().code())))
+                .expectNext(413)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void shouldRejectFormDataAboveMaxSizeWhileReceiving() {
+        String body = "field=" + Strings.repeat("a", 16 * 1024 - 6);
+        StepVerifier.create(postForm(withLimitedServer, "/limited/form", true, body))
+                .expectNext("200 1")
+                .verifyComplete();
+        StepVerifier.create(postForm(withLimitedServer, "/limited/form", true, body + "a"))
+                .assertNext(response -> assertThat(response).startsWith("413 ").contains("Form data exceeds 16384 bytes"))
+                .verifyComplete();
+    }
+
     @Test
     public void shouldPostMultiPart_files() throws IOException {
         StepVerifier.create(withReactiveServer.httpClient()
@@ -723,4 +993,149 @@ public final class ReactiveHttpServerTest {
         assertThat(Files.asCharSource(tmpFolder.resolve("file1").toFile(), Charset.defaultCharset()).readFirstLine()).isEqualTo("test file");
         assertThat(Files.asCharSource(tmpFolder.resolve("file2").toFile(), Charset.defaultCharset()).readFirstLine()).isEqualTo("test file 2");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldStreamMultiPart() throws IOException {
+        StepVerifier.create(withReactiveServer.httpClient()
+                .post()
+                .uri("/upload/multipart/stream")
+                .sendForm((req, form) -> form.multipart(true)
+                        .file("test", "file1", new ByteArrayInputStream("test file" .getBytes()), null)
+                        .attr("att1", "val1")
+                        .file("test2", "file2", new ByteArrayInputStream("test file 2" .getBytes()), null))
+                .response(withCodecManager.checkErrorAndDecodeAsFlux(String.class)))
+                .expectNext(tmpFolder.resolve("streamed-file1").toString())
+                .expectNext("att1=val1")
+                .expectNext(tmpFolder.resolve("streamed-file2").toString())
+                .expectComplete()
+                .verify();
+        assertThat(Files.asCharSource(tmpFolder.resolve("streamed-file1").toFile(), Charset.defaultCharset()).readFirstLine()).isEqualTo("test file");
+        assertThat(Files.asCharSource(tmpFolder.resolve("streamed-file2").toFile(), Charset.defaultCharset()).readFirstLine()).isEqualTo("test file 2");
+    }
+
+    @Test
+    public void shouldReadMultipartRequestWithinLimits() {
+        String part = filePart("test", "file1", Strings.repeat("a", 150 * 1024));
+        StepVerifier.create(postMultipart("/limited/multipart", false, part))
+                .expectNext(200)
+                .verifyComplete();
+        StepVerifier.create(postMultipart("/limited/multipart/stream", true, part))
+                .expectNext(200)
+                .verifyComplete();
+        assertThat(STORAGE_DIRECTORY).isEmptyDirectory();
+    }
+
+    @Test
+    public void shouldRejectMultipartRequestAboveMaxTotalSizeFromContentLength() {
+        String[] parts = {filePart("test", "file1", Strings.repeat("a", 160 * 1024)), filePart("test2", "file2", Strings.repeat("b", 160 * 1024))};
+        StepVerifier.create(postMultipart("/limited/multipart", false, parts))
+                .expectNext(413)
+                .verifyComplete();
+        StepVerifier.create(postMultipart("/limited/multipart/stream", false, parts))
+                .expectNext(413)
+                .verifyComplete();
+        assertThat(STORAGE_DIRECTORY).isEmptyDirectory();
+    }
+
+    @Test
+    public void shouldRejectMultipartRequestAboveMaxTotalSizeWhileReceiving() {
+        String[] parts = {filePart("test", "file1", Strings.repeat("a", 160 * 1024)), filePart("test2", "file2", Strings.repeat("b", 160 * 1024))};
+        StepVerifier.create(postMultipart("/limited/multipart", true, parts))
+                .expectNext(413)
+                .verifyComplete();
+        StepVerifier.create(postMultipart("/limited/multipart/stream", true, parts))
+                .expectNext(413)
+                .verifyComplete();
+        assertThat(STORAGE_DIRECTORY).isEmptyDirectory();
+    }
+
+    @Test
+    public void shouldRejectMultipartPartAboveMaxPartSize() {
+        String part = filePart("test", "file1", Strings.repeat("a", 250 * 1024));
+        StepVerifier.create(postMultipart("/limited/multipart", false, part))
+                .expectNext(413)
+                .verifyComplete();
+        StepVerifier.create(postMultipart("/limited/multipart/stream", false, part))
+                .expectNext(413)
+                .verifyComplete();
+        assertThat(STORAGE_DIRECTORY).isEmptyDirectory();
+    }
+
+    @Test
+    public void shouldStorePartsInStorageDirectory() {
+        StepVerifier.create(withLimitedServer.httpClient()
+                        .post()
+                        .uri("/limited/multipart/stored")
+                        .sendForm((req, form) -> form.multipart(true)
+                                .file("test", "file1", new ByteArrayInputStream(Strings.repeat("a", 150 * 1024).getBytes()), null)
+                                .attr("att1", "val1"))
+                        .response(withCodecManager.checkErrorAndDecodeAsFlux(String.class)))
+                .assertNext(file -> assertThat(file).startsWith("reactiff-part-"))
+                .verifyComplete();
+        assertThat(STORAGE_DIRECTORY).isEmptyDirectory();
+    }
+
+    @Test
+    public void shouldTransferSpilledPart() throws IOException {
+        String content = Strings.repeat("0123456789", 15 * 1024);
+        StepVerifier.create(withLimitedServer.httpClient()
+                        .post()
+                        .uri("/upload/multipart")
+                        .sendForm((req, form) -> form.multipart(true)
+                                .file("test", "file1", new ByteArrayInputStream(content.getBytes()), null))
+                        .response(withCodecManager.checkErrorAndDecodeAsFlux(String.class)))
+                .expectNext(tmpFolder.resolve("file1").toString())
+                .verifyComplete();
+        assertThat(tmpFolder.resolve("file1")).hasContent(content);
+        assertThat(STORAGE_DIRECTORY).isEmptyDirectory();
+    }
+
+    private static String filePart(String name, String filename, String content) {
+        return "--" + MULTIPART_BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n"
+                + content + "\r\n";
+    }
+
+    /**
+     * Posts the form body, with a content length or chunked, and returns the response status and body.
+     */
+    private static Mono<String> postForm(WithReactiveServer server, String uri, boolean chunked, String body) {
+        return server.httpClient()
+                .headers(headers -> {
+                    headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED);
+                    if (chunked) {
+                        headers.set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                    } else {
+                        headers.set(HttpHeaderNames.CONTENT_LENGTH, body.length());
+                    }
+                })
+                .post()
+                .uri(uri)
+                .send(ByteBufFlux.fromString(Flux.fromIterable(Splitter.fixedLength(1000).split(body))))
+                .responseSingle((response, content) -> content.asString()
+                        .defaultIfEmpty("")
+                        .map(string -> response.status().code() + " " + string));
+    }
+
+    /**
+     * Posts the parts to the server with multipart limits, with a content length or chunked, and returns the response status.
+     */
+    private static Mono<Integer> postMultipart(String uri, boolean chunked, String... parts) {
+        String body = String.join("", parts) + "--" + MULTIPART_BOUNDARY + "--\r\n";
+        return withLimitedServer.httpClient()
+                .headers(headers -> {
+                    headers.set(HttpHeaderNames.CONTENT_TYPE, "multipart/form-data; boundary=" + MULTIPART_BOUNDARY);
+                    if (chunked) {
+                        headers.set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                    } else {
+                        headers.set(HttpHeaderNames.CONTENT_LENGTH, body.length());
+                    }
+                })
+                .post()
+                .uri(uri)
+                .send(ByteBufFlux.fromString(Flux.fromIterable(Splitter.fixedLength(16 * 1024).split(body))))
+                .responseSingle((response, content) -> Mono.just(response.status().code()));
+    }
+
+}
@@ -6,6 +6,7 @@ import com.liveaction.reactiff.api.server.Request;
 import com.liveaction.reactiff.api.server.Result;
 import com.liveaction.reactiff.api.server.annotation.RequestMapping;
 import com.liveaction.reactiff.api.server.multipart.FilePart;
+import com.liveaction.reactiff.api.server.multipart.FormFieldPart;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -52,4 +53,18 @@ public final class FileTransferController implements ReactiveHandler {
                 .flatMap(fp -> fp.transferTo(tmpFolder.resolve(fp.filename()), Schedulers.immediate())
                         .thenReturn(tmpFolder.resolve(fp.filename()).toString()));
     }
+
+    @RequestMapping(method = HttpMethod.POST, path = "/upload/multipart/stream")
+    public Flux<String> uploadStream(Request request) {
+        return request.streamParts()
+                .concatMap(part -> {
+                    if (part instanceof FilePart) {
+                        FilePart fp = (FilePart) part;
+                        Path dest = tmpFolder.resolve("streamed-" + fp.filename());
+                        return fp.transferTo(dest, Schedulers.boundedElastic())
+                                .thenReturn(dest.toString());
+                    }
+                    return Mono.just(part.name() + "=" + ((FormFieldPart) part).value());
+                });
+    }
 }
@@ -0,0 +1,70 @@
+package com.liveaction.reactiff.server.general.example;
+
+import com.liveaction.reactiff.api.server.HttpMethod;
+import com.liveaction.reactiff.api.server.ReactiveHandler;
+import com.liveaction.reactiff.api.server.Request;
+import com.liveaction.reactiff.api.server.annotation.RequestMapping;
+import com.liveaction.reactiff.api.server.multipart.Part;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads multipart and form requests of a server with multipart and form data limits. Errors of a Mono are answered with their status, unlike
+ * the ones of a Flux raised once the response has started.
+ */
+public final class LimitedMultipartController implements ReactiveHandler {
+
+    private final Path storageDirectory;
+
+    public LimitedMultipartController(Path storageDirectory) {
+        this.storageDirectory = storageDirectory;
+    }
+
+    @RequestMapping(method = HttpMethod.POST, path = "/limited/multipart")
+    public Mono<Long> partsSize(Request request) {
+        return request.parts()
+                .flatMapIterable(Map::values)
+                .concatMap(LimitedMultipartController::size)
+                .reduce(0L, Long::sum);
+    }
+
+    @RequestMapping(method = HttpMethod.POST, path = "/limited/multipart/stream")
+    public Mono<Long> streamedPartsSize(Request request) {
+        return request.streamParts()
+                .concatMap(LimitedMultipartController::size)
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * The files of the storage directory once the parts have been received. The parts are read afterwards, which
+     * deletes their stored file.
+     */
+    @RequestMapping(method = HttpMethod.POST, path = "/limited/multipart/stored")
+    public Mono<List<String>> storedFiles(Request request) {
+        return request.parts()
+                .flatMap(parts -> Flux.using(() -> Files.list(storageDirectory), Flux::fromStream)
+                        .map(file -> file.getFileName().toString())
+                        .collectList()
+                        .flatMap(files -> Flux.fromIterable(parts.values())
+                                .concatMap(LimitedMultipartController::size)
+                                .then(Mono.just(files))));
+    }
+
+    @RequestMapping(method = HttpMethod.POST, path = "/limited/form")
+    public Mono<Integer> countFormFields(Request request) {
+        return request.getFormData()
+                .map(fields -> fields.values().stream().mapToInt(List::size).sum());
+    }
+
+    private static Mono<Long> size(Part part) {
+        return part.content()
+                .map(byteBuf -> (long) byteBuf.readableBytes())
+                .reduce(0L, Long::sum);
+    }
+
+}
@@ -21,6 +21,7 @@ import reactor.netty.http.websocket.WebsocketInbound;
 import reactor.netty.http.websocket.WebsocketOutbound;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
@@ -185,4 +186,16 @@ public final class TestController implements ReactiveHandler {
 
     }
 
+    @RequestMapping(method = HttpMethod.POST, path = "/form")
+    public Flux<String> getFormFields(Request request) {
+        return request.streamFormData()
+                .map(entry -> entry.getKey() + "=" + entry.getValue());
+    }
+
+    @RequestMapping(method = HttpMethod.POST, path = "/form/count")
+    public Mono<Integer> countFormFields(Request request) {
+        return request.getFormData()
+                .map(fields -> fields.values().stream().mapToInt(List::size).sum());
+    }
+
 }
@@ -0,0 +1,119 @@
+package com.liveaction.reactiff.server.internal.filters;
+
+import com.google.common.collect.ImmutableSet;
+import com.liveaction.reactiff.api.server.FilterChain;
+import com.liveaction.reactiff.api.server.HttpMethod;
+import com.liveaction.reactiff.api.server.Request;
+import com.liveaction.reactiff.api.server.Result;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CorsFilterTest {
+
+    private static final FilterChain CHAIN = request -> Mono.just(Result.ok(Mono.just("ok"), String.class));
+
+    private static CorsFilter corsFilter(String... allowedOrigins) {
+        return new CorsFilter(ImmutableSet.copyOf(allowedOrigins), ImmutableSet.of("X-UserToken"), ImmutableSet.of("GET", "POST"), false, 3600);
+    }
+
+    private static Request request(HttpMethod method, String origin, String accessControlRequestMethod) {
+        Request request = Mockito.mock(Request.class);
+        Mockito.when(request.method()).thenReturn(method);
+        Mockito.when(request.header(HttpHeaderNames.ORIGIN)).thenReturn(origin);
+        Mockito.when(request.header(HttpHeaderNames.ACCESS_CONTROL_REQUEST_METHOD)).thenReturn(accessControlRequestMethod);
+        return request;
+    }
+
+    private static Result<?> get(CorsFilter corsFilter, String origin) {
+        return corsFilter.filter(request(HttpMethod.GET, origin, null), CHAIN).block();
+    }
+
+    private static Result<?> preflight(CorsFilter corsFilter, String origin, String method) {
+        return corsFilter.filter(request(HttpMethod.OPTIONS, origin, method), CHAIN).block();
+    }
+
+    @Test
+    public void shouldAllowOriginsMatchingPattern() {
+        CorsFilter corsFilter = corsFilter("https://*.example.com");
+
+        Result<?> result = get(corsFilter, "https://api.example.com");
+        Assertions.assertThat(result.headers().get("Access-Control-Allow-Origin")).isEqualTo("https://api.example.com");
+        Assertions.assertThat(result.headers().get("Vary")).isEqualTo("origin");
+        Assertions.assertThat(get(corsFilter, "https://a.b.example.com").headers().get("Access-Control-Allow-Origin"))
+                .isEqualTo("https://a.b.example.com");
+        Assertions.assertThat(get(corsFilter, "https://example.com").headers().get("Access-Control-Allow-Origin"))
+                .isEqualTo("https://*.example.com");
+        Assertions.assertThat(get(corsFilter, "https://evil.com/.example.com").headers().get("Access-Control-Allow-Origin"))
+                .isEqualTo("https://*.example.com");
+    }
+
+    @Test
+    public void shouldMatchOriginsIgnoringCase() {
+        CorsFilter corsFilter = corsFilter("http://LocalHost", "https://*.Example.com");
+
+        Assertions.assertThat(get(corsFilter, "http://localhost").headers().get("Access-Control-Allow-Origin")).isEqualTo("http://localhost");
+        Assertions.assertThat(get(corsFilter, "HTTPS://API.EXAMPLE.COM").headers().get("Access-Control-Allow-Origin")).isEqualTo("HTTPS://API.EXAMPLE.COM");
+    }
+
+    @Test
+    public void shouldNotVaryOnOriginWithSingleAllowedOrigin() {
+        CorsFilter corsFilter = corsFilter("http://localhost");
+
+        Result<?> result = get(corsFilter, "http://other");
+        Assertions.assertThat(result.headers().get("Access-Control-Allow-Origin")).isEqualTo("http://localhost");
+        Assertions.assertThat(result.headers().contains("Vary")).isFalse();
+        Assertions.assertThat(preflight(corsFilter, "http://localhost", "GET").headers().contains("Vary")).isFalse();
+    }
+
+    @Test
+    public void shouldCachePreflightResultsByAllowedOrigin() {
+        CorsFilter corsFilter = corsFilter("http://localhost", "http://other");
+
+        Result<?> result = preflight(corsFilter, "http://localhost", "GET");
+        Assertions.assertThat(result.status().code()).isEqualTo(202);
+        Assertions.assertThat(result.headers().get("Access-Control-Allow-Origin")).isEqualTo("http://localhost");
+        Assertions.assertThat(result.headers().get("Access-Control-Allow-Methods")).contains("GET", "POST");
+        Assertions.assertThat(result.headers().get("Access-Control-Max-Age")).isEqualTo("3600");
+        Assertions.assertThat(result.headers().get("Vary")).isEqualTo("origin");
+        Assertions.assertThat(preflight(corsFilter, "http://localhost", "POST")).isSameAs(result);
+        Assertions.assertThat(preflight(corsFilter, "http://other", "GET").headers().get("Access-Control-Allow-Origin")).isEqualTo("http://other");
+    }
+
+    @Test
+    public void shouldRejectPreflightOfMethodNotAllowed() {
+        CorsFilter corsFilter = corsFilter("http://localhost");
+        AtomicInteger chained = new AtomicInteger();
+
+        Result<?> result = corsFilter.filter(request(HttpMethod.OPTIONS, "http://localhost", "DELETE"), request -> {
+            chained.incrementAndGet();
+            return CHAIN.chain(request);
+        }).block();
+        Assertions.assertThat(result.status().code()).isEqualTo(401);
+        Assertions.assertThat(result.headers().contains("Access-Control-Allow-Origin")).isFalse();
+        Assertions.assertThat(chained).hasValue(0);
+    }
+
+    @Test
+    public void shouldAddVaryToExistingOne() {
+        CorsFilter corsFilter = corsFilter("*");
+
+        Result<?> result = corsFilter.filter(request(HttpMethod.GET, "http://localhost", null), request -> Mono.just(Result.builder()
+                .header(HttpHeaderNames.VARY, "Accept-Encoding")
+                .build())).block();
+        Assertions.assertThat(result.headers().get("Access-Control-Allow-Origin")).isEqualTo("http://localhost");
+        Assertions.assertThat(result.headers().get("Vary")).isEqualTo("Accept-Encoding");
+        StringBuilder vary = new StringBuilder();
+        result.headers().forEach((name, value) -> {
+            if ("Vary".equalsIgnoreCase(name)) {
+                vary.append(value).append(';');
+            }
+        });
+        Assertions.assertThat(vary.toString()).isEqualTo("Accept-Encoding;origin;");
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.liveaction.reactiff.server.internal.multipart;
+
+import com.google.common.base.Strings;
+import com.liveaction.reactiff.api.server.multipart.FilePart;
+import com.liveaction.reactiff.api.server.multipart.FormFieldPart;
+import com.liveaction.reactiff.api.server.multipart.Part;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.TooLongFrameException;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StreamingPartsTest {
+
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=boundary";
+
+    private final List<ByteBuf> received = new CopyOnWriteArrayList<>();
+
+    /**
+     * Like the request body, each buffer is released once it has been handed over.
+     */
+    private Flux<ByteBuf> body(String... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> {
+                    ByteBuf byteBuf = Unpooled.copiedBuffer(chunk, StandardCharsets.UTF_8);
+                    received.add(byteBuf);
+                    return byteBuf;
+                })
+                .concatMap(byteBuf -> Mono.just(byteBuf).doFinally(signalType -> byteBuf.release()), 0);
+    }
+
+    private static String fileHeaders(String name) {
+        return "--boundary\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\"" + name + ".txt\"\r\n\r\n";
+    }
+
+    private static String fieldHeaders(String name) {
+        return "--boundary\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n";
+    }
+
+    private static Mono<String> contentOf(Part part) {
+        return part.content().aggregate().asString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldStreamFilePartsAndFormFields() {
+        Flux<String> parts = StreamingParts.parse(body(fileHeaders("file"), "test ", "file", "\r\n" + fieldHeaders("att1"), "va", "l1\r\n--boundary--\r\n"),
+                        CONTENT_TYPE, -1, -1)
+                .concatMap(part -> part instanceof FilePart
+                        ? contentOf(part).map(content -> part.name() + ":" + content)
+                        : Mono.just(part.name() + "=" + ((FormFieldPart) part).value()));
+
+        StepVerifier.create(parts)
+                .expectNext("file:test file", "att1=val1")
+                .verifyComplete();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldReadFileContentAsItIsConsumed() {
+        String[] chunks = new String[102];
+        chunks[0] = fileHeaders("file");
+        for (int i = 1; i <= 100; i++) {
+            chunks[i] = "0123456789";
+        }
+        chunks[101] = "\r\n--boundary--\r\n";
+        AtomicInteger emitted = new AtomicInteger();
+
+        FilePart filePart = (FilePart) StreamingParts.parse(body(chunks).doOnNext(byteBuf -> emitted.incrementAndGet()), CONTENT_TYPE, -1, -1)
+                .blockFirst();
+
+        // the content is not read from the body until the part is consumed, aside from the prefetched buffers
+        Assertions.assertThat(emitted.get()).isLessThan(chunks.length);
+        StringBuilder content = new StringBuilder();
+        StepVerifier.create(filePart.content().asString(StandardCharsets.UTF_8).doOnNext(content::append), 0)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .then(() -> Assertions.assertThat(emitted.get()).isLessThan(chunks.length))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(next -> true)
+                .verifyComplete();
+        Assertions.assertThat(content.toString()).isEqualTo(Strings.repeat("0123456789", 100));
+        Assertions.assertThat(emitted.get()).isEqualTo(chunks.length);
+    }
+
+    @Test
+    public void shouldDrainCancelledFileContent() {
+        Flux<Part> parts = StreamingParts.parse(body(fileHeaders("first"), "first content ", "not read ", "at all", "\r\n" + fileHeaders("second"), "second content",
+                "\r\n" + fieldHeaders("att1"), "val1\r\n--boundary--\r\n"), CONTENT_TYPE, -1, -1);
+
+        StepVerifier.create(parts.concatMap(part -> {
+                    if ("first".equals(part.name())) {
+                        return part.content().take(1).then(Mono.just("first cancelled"));
+                    }
+                    return contentOf(part);
+                }))
+                .expectNext("first cancelled", "second content", "val1")
+                .verifyComplete();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldFailOnTooLongFormField() {
+        Flux<Part> parts = StreamingParts.parse(body(fieldHeaders("att1"), Strings.repeat("a", 8), Strings.repeat("a", 8), "\r\n--boundary--\r\n"),
+                CONTENT_TYPE, -1, 10);
+
+        StepVerifier.create(parts)
+                .expectErrorSatisfies(e -> Assertions.assertThat(e)
+                        .isInstanceOf(TooLongFrameException.class)
+                        .hasMessage("Multipart form field exceeds 10 bytes"))
+                .verify();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldNotLimitFilePartsToFormFieldSize() {
+        Flux<String> parts = StreamingParts.parse(body(fileHeaders("file"), Strings.repeat("a", 8), Strings.repeat("a", 8), "\r\n--boundary--\r\n"),
+                        CONTENT_TYPE, -1, 10)
+                .concatMap(StreamingPartsTest::contentOf);
+
+        StepVerifier.create(parts)
+                .expectNext(Strings.repeat("a", 16))
+                .verifyComplete();
+    }
+
+}
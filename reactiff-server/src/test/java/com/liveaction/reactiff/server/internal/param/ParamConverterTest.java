@@ -0,0 +1,118 @@
+package com.liveaction.reactiff.server.internal.param;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
+import com.liveaction.reactiff.server.internal.param.converter.ConstructorBasedConverter;
+import com.liveaction.reactiff.server.internal.param.converter.MethodBasedConverter;
+import com.liveaction.reactiff.server.mock.PojoWithValueOf;
+import com.liveaction.reactiff.server.param.converter.ParamTypeConverter;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.NoSuchElementException;
+
+public class ParamConverterTest {
+
+    private static final class OverridingPojoConverter implements ParamTypeConverter<PojoWithValueOf> {
+
+        @Override
+        public PojoWithValueOf fromString(String s) {
+            return new PojoWithValueOf("overridden", s);
+        }
+
+        @Override
+        public boolean canConvertType(Class<?> clazz) {
+            return clazz == PojoWithValueOf.class;
+        }
+    }
+
+    private static final class HexIntegerConverter implements ParamTypeConverter<Integer> {
+
+        @Override
+        public Integer fromString(String s) {
+            return Integer.parseInt(s, 16);
+        }
+
+        @Override
+        public boolean canConvertType(Class<?> clazz) {
+            return clazz == Integer.class;
+        }
+    }
+
+    @Test
+    public void shouldConvertPrimitiveArrays() {
+        ParamConverter paramConverter = new ParamConverter(ImmutableList.of());
+        ImmutableList<String> input = ImmutableList.of("1", "2");
+
+        Assertions.assertThat(paramConverter.convertValue(input, TypeToken.of(int[].class))).containsExactly(1, 2);
+        Assertions.assertThat(paramConverter.convertValue(input, TypeToken.of(long[].class))).containsExactly(1L, 2L);
+        Assertions.assertThat(paramConverter.convertValue(input, TypeToken.of(double[].class))).containsExactly(1d, 2d);
+        Assertions.assertThat(paramConverter.convertValue(ImmutableList.of("true", "false"), TypeToken.of(boolean[].class))).containsExactly(true, false);
+        Assertions.assertThat(paramConverter.convertValue(input, TypeToken.of(short[].class))).containsExactly((short) 1, (short) 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnInvalidPrimitiveArrayValue() {
+        new ParamConverter(ImmutableList.of()).convertValue(ImmutableList.of("1", "two"), TypeToken.of(int[].class));
+    }
+
+    @Test
+    public void shouldParsePrimitiveArraysWithoutReflectiveConverters() {
+        // the reflective converters log each value they fail to convert
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        Logger constructorLogger = (Logger) LoggerFactory.getLogger(ConstructorBasedConverter.class);
+        Logger methodLogger = (Logger) LoggerFactory.getLogger(MethodBasedConverter.class);
+        constructorLogger.addAppender(appender);
+        methodLogger.addAppender(appender);
+        try {
+            ParamConverter paramConverter = new ParamConverter(ImmutableList.of());
+            ImmutableList<String> input = ImmutableList.of("1", "two");
+            for (Class<?> type : ImmutableList.of(int[].class, long[].class, double[].class)) {
+                Assertions.assertThatThrownBy(() -> paramConverter.convertValue(input, TypeToken.of(type)))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasCauseInstanceOf(NumberFormatException.class);
+            }
+            Assertions.assertThat(appender.list).isEmpty();
+        } finally {
+            constructorLogger.detachAppender(appender);
+            methodLogger.detachAppender(appender);
+        }
+    }
+
+    @Test
+    public void shouldConvertPrimitiveArraysWithRegisteredConverter() {
+        ParamConverter paramConverter = new ParamConverter(ImmutableList.of(new HexIntegerConverter()));
+
+        Assertions.assertThat(paramConverter.convertValue(ImmutableList.of("a", "ff"), TypeToken.of(int[].class))).containsExactly(10, 255);
+    }
+
+    @Test
+    public void shouldResolveConverterAgainWhenConvertersChange() {
+        ParamConverter paramConverter = new ParamConverter(ImmutableList.of());
+        TypeToken<PojoWithValueOf> type = TypeToken.of(PojoWithValueOf.class);
+        Assertions.assertThat(paramConverter.convertValue(ImmutableList.of("a"), type)).isEqualTo(new PojoWithValueOf("default", "a"));
+
+        OverridingPojoConverter converter = new OverridingPojoConverter();
+        paramConverter.addConverter(converter);
+        Assertions.assertThat(paramConverter.convertValue(ImmutableList.of("a"), type)).isEqualTo(new PojoWithValueOf("overridden", "a"));
+
+        paramConverter.removeConverter(converter);
+        Assertions.assertThat(paramConverter.convertValue(ImmutableList.of("a"), type)).isEqualTo(new PojoWithValueOf("default", "a"));
+    }
+
+    @Test
+    public void shouldFailEachTimeForUnconvertibleType() {
+        ParamConverter paramConverter = new ParamConverter(ImmutableList.of());
+        TypeToken<Object> type = TypeToken.of(Object.class);
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThatThrownBy(() -> paramConverter.convertValue(ImmutableList.of("a"), type))
+                    .isInstanceOf(NoSuchElementException.class);
+        }
+    }
+
+}
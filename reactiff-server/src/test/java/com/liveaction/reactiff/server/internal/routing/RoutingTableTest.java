@@ -0,0 +1,76 @@
+package com.liveaction.reactiff.server.internal.routing;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+public class RoutingTableTest {
+
+    @Test
+    public void shouldMatchStaticAndParamRoutes() {
+        RoutingTable routingTable = new RoutingTable();
+        routingTable.add(HttpMethod.GET, "/conflict/test", (req, res) -> Mono.empty());
+        routingTable.add(HttpMethod.GET, "/conflict/{name}", (req, res) -> Mono.empty());
+        routingTable.add(HttpMethod.GET, "/a/{x}/b/{y}", (req, res) -> Mono.empty());
+
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/conflict/test").template()).isEqualTo("/conflict/test");
+        RoutingTable.Match match = routingTable.match(HttpMethod.GET, "/conflict/other?query=1");
+        Assertions.assertThat(match.template()).isEqualTo("/conflict/{name}");
+        Assertions.assertThat(match.params()).containsOnly(Assertions.entry("name", "other"));
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1/b/2").params())
+                .containsOnly(Assertions.entry("x", "1"), Assertions.entry("y", "2"));
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1/b")).isNull();
+        Assertions.assertThat(routingTable.match(HttpMethod.POST, "/conflict/test")).isNull();
+    }
+
+    @Test
+    public void shouldKeepRegistrationOrder() {
+        RoutingTable routingTable = new RoutingTable();
+        routingTable.add(HttpMethod.GET, "/conflict/{name}", (req, res) -> Mono.empty());
+        routingTable.add(HttpMethod.GET, "/conflict/test", (req, res) -> Mono.empty());
+
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/conflict/test").template()).isEqualTo("/conflict/{name}");
+    }
+
+    @Test
+    public void shouldMatchSplatAndPatternSegments() {
+        RoutingTable routingTable = new RoutingTable();
+        routingTable.add(HttpMethod.GET, "/files/{name}.json", (req, res) -> Mono.empty());
+        routingTable.add(HttpMethod.GET, "/static/{rest}**", (req, res) -> Mono.empty());
+
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/files/pojo.json").params()).containsOnly(Assertions.entry("name", "pojo"));
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/files/pojo.xml")).isNull();
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/static/css/main.css").params()).containsOnly(Assertions.entry("rest", "css/main.css"));
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/static")).isNull();
+    }
+
+    @Test
+    public void shouldNotMatchPathsLongerThanRoutes() {
+        RoutingTable routingTable = new RoutingTable();
+        routingTable.add(HttpMethod.GET, "/a/{x}", (req, res) -> Mono.empty());
+
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1").params()).containsOnly(Assertions.entry("x", "1"));
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1/")).isNull();
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1/2/3")).isNull();
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1/2/3/")).isNull();
+    }
+
+    @Test
+    public void shouldMatchTrailingSlashOnlyWhenDeclared() {
+        RoutingTable routingTable = new RoutingTable();
+        routingTable.add(HttpMethod.GET, "/a/{x}/", (req, res) -> Mono.empty());
+        routingTable.add(HttpMethod.GET, "/b", (req, res) -> Mono.empty());
+
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1/").params()).containsOnly(Assertions.entry("x", "1"));
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/a/1")).isNull();
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/b/")).isNull();
+        Assertions.assertThat(routingTable.match(HttpMethod.GET, "/b//")).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidParamName() {
+        new RoutingTable().add(HttpMethod.GET, "/route/invalid/{wrong_param}", (req, res) -> Mono.empty());
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.liveaction.reactiff.server.internal.template;
+
+import com.google.common.collect.ImmutableMap;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class TemplateTest {
+
+    @Test
+    public void shouldRenderPlaceholders() {
+        Template template = Template.compile("Hello {{ name }}, {{name}} and {{ other }} !");
+
+        Assertions.assertThat(template.render(ImmutableMap.of("name", "world")))
+                .isEqualTo("Hello world, world and {{ other }} !");
+        Assertions.assertThat(template.render(ImmutableMap.of("name", "world", "other", "you")))
+                .isEqualTo("Hello world, world and you !");
+        Assertions.assertThat(Template.compile("no placeholder").render(ImmutableMap.of("name", "world")))
+                .isEqualTo("no placeholder");
+    }
+
+    @Test
+    public void shouldBindPlaceholders() {
+        Template template = Template.compile("{{ method }} {{ uri }} : {{ routes }}")
+                .bind(ImmutableMap.of("routes", "GET /yes"));
+
+        Assertions.assertThat(template.render(ImmutableMap.of("method", "POST", "uri", "/no")))
+                .isEqualTo("POST /no : GET /yes");
+        Assertions.assertThat(template.render(ImmutableMap.of("routes", "other")))
+                .isEqualTo("{{ method }} {{ uri }} : GET /yes");
+    }
+
+    @Test
+    public void shouldTakeValuesLiterally() {
+        Template template = Template.compile("{{ a }} {{ b }}");
+
+        Assertions.assertThat(template.render(ImmutableMap.of("a", "$1 \\$ \\", "b", "{{ a }}")))
+                .isEqualTo("$1 \\$ \\ {{ a }}");
+        Assertions.assertThat(template.bind(ImmutableMap.of("a", "$0\\", "b", "{{ a }}")).render(ImmutableMap.of("a", "c:\\$2")))
+                .isEqualTo("$0\\ {{ a }}");
+    }
+
+}
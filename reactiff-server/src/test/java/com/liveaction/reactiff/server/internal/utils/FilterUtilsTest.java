@@ -0,0 +1,54 @@
+package com.liveaction.reactiff.server.internal.utils;
+
+import com.liveaction.reactiff.api.server.AnnotationReactiveFilter;
+import com.liveaction.reactiff.api.server.FilterChain;
+import com.liveaction.reactiff.api.server.Request;
+import com.liveaction.reactiff.api.server.Result;
+import com.liveaction.reactiff.server.general.example.RequiresAuth;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+public class FilterUtilsTest {
+
+    private static final Result<String> CHAINED = Result.ok(Mono.just("chained"), String.class);
+    private static final Result<String> FILTERED = Result.ok(Mono.just("filtered"), String.class);
+
+    private static class AnnotatedOnlyFilter implements AnnotationReactiveFilter<RequiresAuth> {
+
+        @Override
+        public Class<RequiresAuth> annotation() {
+            return RequiresAuth.class;
+        }
+
+        @Override
+        public Mono<Result> annotatedFilter(Request request, FilterChain chain, RequiresAuth annotation) {
+            return Mono.just(FILTERED);
+        }
+    }
+
+    private static final class OverridingFilter extends AnnotatedOnlyFilter {
+
+        @Override
+        public Mono<Result> filter(Request request, FilterChain chain) {
+            return Mono.just(FILTERED);
+        }
+    }
+
+    @Test
+    public void shouldLeaveAnnotationFilterOutWithoutRoute() {
+        FilterChain chain = FilterUtils.chain(new AnnotatedOnlyFilter(), request -> Mono.just(CHAINED), Optional.empty());
+
+        Assertions.assertThat(chain.chain(null).block()).isSameAs(CHAINED);
+    }
+
+    @Test
+    public void shouldCallOverriddenFilterOfAnnotationFilter() {
+        FilterChain chain = FilterUtils.chain(new OverridingFilter(), request -> Mono.just(CHAINED), Optional.empty());
+
+        Assertions.assertThat(chain.chain(null).block()).isSameAs(FILTERED);
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.liveaction.reactiff.server.internal.utils;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.TooLongFrameException;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FormDataDecoderTest {
+
+    private final List<ByteBuf> received = new CopyOnWriteArrayList<>();
+
+    /**
+     * Like the request body, each buffer is released once it has been handed over.
+     */
+    private Flux<ByteBuf> body(byte[]... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> {
+                    ByteBuf byteBuf = Unpooled.wrappedBuffer(chunk);
+                    received.add(byteBuf);
+                    return byteBuf;
+                })
+                .concatMap(byteBuf -> Mono.just(byteBuf).doFinally(signalType -> byteBuf.release()), 0);
+    }
+
+    private Flux<ByteBuf> body(String... chunks) {
+        return body(Arrays.stream(chunks)
+                .map(chunk -> chunk.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new));
+    }
+
+    @Test
+    public void shouldDecodeFieldsSplitAcrossBuffers() {
+        StepVerifier.create(FormDataDecoder.decode(body("att1=va", "l1&at", "t2=val%2", "0", "2&&att1", "=val3"), StandardCharsets.UTF_8, -1, -1))
+                .expectNext(Maps.immutableEntry("att1", "val1"))
+                .expectNext(Maps.immutableEntry("att2", "val 2"))
+                .expectNext(Maps.immutableEntry("att1", "val3"))
+                .verifyComplete();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldDecodeMultiByteCharactersSplitAcrossBuffers() {
+        byte[] raw = "name=café".getBytes(StandardCharsets.UTF_8);
+        byte[] first = Arrays.copyOf(raw, raw.length - 1);
+        byte[] last = Arrays.copyOfRange(raw, raw.length - 1, raw.length);
+
+        StepVerifier.create(FormDataDecoder.decode(body(first, last, "&encoded=caf%C".getBytes(StandardCharsets.UTF_8), "3%A9".getBytes(StandardCharsets.UTF_8)),
+                        StandardCharsets.UTF_8, -1, -1))
+                .expectNext(Maps.immutableEntry("name", "café"))
+                .expectNext(Maps.immutableEntry("encoded", "café"))
+                .verifyComplete();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldSplitOnSemicolonsAndSkipLeadingEquals() {
+        StepVerifier.create(FormDataDecoder.decode(body("att1=val1;att2", "=val2;==att3=val3;=;novalue"), StandardCharsets.UTF_8, -1, -1))
+                .expectNext(Maps.immutableEntry("att1", "val1"))
+                .expectNext(Maps.immutableEntry("att2", "val2"))
+                .expectNext(Maps.immutableEntry("att3", "val3"))
+                .expectNext(Maps.immutableEntry("novalue", ""))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldCollectValuesByName() {
+        StepVerifier.create(FormDataDecoder.collect(FormDataDecoder.decode(body("att1=val1&att2=val2&att1=val3"), StandardCharsets.UTF_8, -1, -1)))
+                .expectNext(ImmutableMap.of("att1", ImmutableList.of("val1", "val3"), "att2", ImmutableList.of("val2")))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldFailAboveMaxFields() {
+        StepVerifier.create(FormDataDecoder.decode(body("att1=val1&att2=val2&&", "att3=val3"), StandardCharsets.UTF_8, 3, -1))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        StepVerifier.create(FormDataDecoder.decode(body("att1=val1&att2=val2&", "att3=val3&att4"), StandardCharsets.UTF_8, 3, -1))
+                .expectNextCount(3)
+                .expectErrorSatisfies(e -> Assertions.assertThat(e)
+                        .isInstanceOf(TooLongFrameException.class)
+                        .hasMessage("Form data exceeds 3 fields"))
+                .verify();
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+    @Test
+    public void shouldFailAboveMaxSizeWhileReceiving() {
+        String chunk = "field=" + Strings.repeat("a", 94) + "&";
+        StepVerifier.create(FormDataDecoder.decode(body(chunk, chunk, chunk), StandardCharsets.UTF_8, -1, 3 * chunk.length()))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        AtomicInteger emitted = new AtomicInteger();
+        StepVerifier.create(FormDataDecoder.decode(body(chunk, chunk, chunk, chunk, chunk).doOnNext(byteBuf -> emitted.incrementAndGet()),
+                        StandardCharsets.UTF_8, -1, 2 * chunk.length() + 1))
+                .expectNextCount(2)
+                .expectErrorSatisfies(e -> Assertions.assertThat(e)
+                        .isInstanceOf(TooLongFrameException.class)
+                        .hasMessage("Form data exceeds " + (2 * chunk.length() + 1) + " bytes"))
+                .verify();
+        // the body is no longer read once the limit is exceeded
+        Assertions.assertThat(emitted).hasValue(3);
+        Assertions.assertThat(received).allMatch(byteBuf -> byteBuf.refCnt() == 0);
+    }
+
+}
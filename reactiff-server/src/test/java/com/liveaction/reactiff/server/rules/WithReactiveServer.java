@@ -9,16 +9,25 @@ import org.junit.rules.ExternalResource;
 import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
 
+import java.util.function.UnaryOperator;
+
 public final class WithReactiveServer extends ExternalResource {
 
     public final ReactiveHttpServer server;
 
     public WithReactiveServer(WithCodecManager withCodecManager) {
-        server = ReactiveHttpServer.create()
-                .compress(true)
-                .displayRoutes(true)
-                .protocols(HttpProtocol.HTTP11)
-                .codecManager(withCodecManager.codecManager)
+        this(withCodecManager, UnaryOperator.identity());
+    }
+
+    /**
+     * @param customizer applied to the builder of the default test server
+     */
+    public WithReactiveServer(WithCodecManager withCodecManager, UnaryOperator<ReactiveHttpServer.Builder> customizer) {
+        server = customizer.apply(ReactiveHttpServer.create()
+                        .compress(true)
+                        .displayRoutes(true)
+                        .protocols(HttpProtocol.HTTP11)
+                        .codecManager(withCodecManager.codecManager))
                 .build();
     }
 